@@ -0,0 +1,100 @@
+package polygon;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Building and measuring candidates: the nearest neighbour path (one findNearest per point), the three paths that are
+ * already simple polygons, a single nearest point query, the perimeter, the neighbour list of a nearest neighbour
+ * path, and one ant of a colony.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ConstructionBenchmark {
+
+	@Param({"100", "1000", "10000", "100000"})
+	int n;
+
+	PointSet points;
+	Candidate nearest;
+	KdTree tree;
+	AntColony colony;
+	int query;
+
+	@Setup
+	public void setup(){
+		points = PointSets.uniform(n);
+		nearest = new Candidate(points, Candidate.NEAREST_NEIGHBOUR, new Random(PointSets.SEED));
+		tree = new KdTree(points);
+		colony = new AntColony(points, PointSets.SEED);
+	}
+
+	@Benchmark
+	public Candidate nearestNeighbourPath(){
+		return new Candidate(points, Candidate.NEAREST_NEIGHBOUR, new Random(PointSets.SEED));
+	}
+
+	@Benchmark
+	public Candidate starShapedPath(){
+		return new Candidate(points, Candidate.STAR_SHAPED, new Random(PointSets.SEED));
+	}
+
+	@Benchmark
+	public Candidate xMonotonePath(){
+		return new Candidate(points, Candidate.X_MONOTONE, new Random(PointSets.SEED));
+	}
+
+	@Benchmark
+	public Candidate spacePartitioningPath(){
+		return new Candidate(points, Candidate.SPACE_PARTITIONING, new Random(PointSets.SEED));
+	}
+
+	/**
+	 * One step of the nearest neighbour path, as in Candidate: the current point is taken out of the tree before the
+	 * query, so the answer is another point. It is put back afterwards, which costs as much as taking it out.
+	 */
+	@Benchmark
+	public int findNearest(){
+		query = (query + 1) % n;
+		tree.remove(query);
+		int found = tree.nearest(points.xs[query], points.ys[query]);
+		tree.restore(query);
+		return found;
+	}
+
+	@Benchmark
+	public long calculatePerim(){
+		return nearest.calculatePerim();
+	}
+
+	@Benchmark
+	public NeighbourList neighbourList(){
+		return new NeighbourList(nearest);
+	}
+
+	/**
+	 * One ant walking over the first pheromone of the colony, with its intersections counted, as every ant of an
+	 * iteration does. The pheromone update that ends an iteration is left out, so every invocation walks the same trails.
+	 */
+	@Benchmark
+	public Candidate antPath(){
+		return colony.walk(new Random(PointSets.SEED));
+	}
+
+}
@@ -0,0 +1,54 @@
+package polygon;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * The segment intersection test, over n random segments each tested against the next one.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class GeometryBenchmark {
+
+	@Param({"100", "1000", "10000", "100000"})
+	int n;
+
+	int[] coords;
+
+	@Setup
+	public void setup(){
+		SplittableRandom random = new SplittableRandom(PointSets.SEED);
+		coords = new int[4 * (n + 1)];
+		for(int i = 0; i < coords.length; i++)
+			coords[i] = random.nextInt(2 * PointSets.BOUNDARY) - PointSets.BOUNDARY;
+	}
+
+	@Benchmark
+	public int segmentsIntersect(){
+		int[] c = coords;
+		int found = 0;
+		for(int i = 0; i < n; i++) {
+			int a = 4 * i, b = 4 * i + 4;
+			if(Geometry.segmentsIntersect(c[a], c[a+1], c[a+2], c[a+3], c[b], c[b+1], c[b+2], c[b+3]))
+				found++;
+		}
+		return found;
+	}
+
+}
@@ -0,0 +1,91 @@
+package polygon;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * The full improvement loops, each run once from the same nearest neighbour path.
+ * The loops that may not reach a simple polygon on the largest sets are bounded by a time budget or an iteration count.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@Fork(1)
+public class ImprovementBenchmark {
+
+	private static final long BUDGET = 10000;
+
+	@Param({"100", "1000", "10000", "100000"})
+	int n;
+
+	PointSet points;
+	Candidate start;
+
+	@Setup(Level.Trial)
+	public void setup(){
+		points = PointSets.uniform(n);
+	}
+
+	@Setup(Level.Invocation)
+	public void fresh(){
+		start = new Candidate(points, Candidate.NEAREST_NEIGHBOUR, new Random(PointSets.SEED));
+	}
+
+	@Benchmark
+	public Candidate lessConflicts(){
+		return improve(Solver.LESS_CONFLICTS);
+	}
+
+	@Benchmark
+	public Candidate firstImprovement(){
+		return improve(Solver.FIRST_IMPROVEMENT);
+	}
+
+	@Benchmark
+	public Candidate untangling(){
+		return new Untangler(start).run(100 * n);
+	}
+
+	@Benchmark
+	public Candidate localSearchUntangling(){
+		return new LocalSearch(start).untangle(100 * n);
+	}
+
+	@Benchmark
+	public Candidate localSearch(){
+		return new LocalSearch(start).run(100 * n);
+	}
+
+	@Benchmark
+	public Candidate annealing(){
+		Annealer annealer = new Annealer(start, PointSets.SEED);
+		annealer.setReach(30);
+		return annealer.run(100000);
+	}
+
+	/**
+	 * The improvement loop of Solver, from the start of this invocation rather than a path built inside the timing.
+	 */
+	private Candidate improve(byte strategy){
+		Solver solver = new Solver();
+		solver.setStrategy(strategy);
+		long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(BUDGET);
+		return solver.improve(start, new Random(PointSets.SEED), deadline);
+	}
+
+}
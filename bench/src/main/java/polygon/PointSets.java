@@ -0,0 +1,26 @@
+package polygon;
+
+/**
+ * The seeded point sets shared by the benchmarks, so every run measures the same instances.
+ *
+ * @author Felipe Valverde
+ * @author Murilo Rosa
+ */
+final class PointSets {
+
+	/** Large enough for 100k distinct points, with room to spare below the 2^30 span that keeps perimeters exact. */
+	static final int BOUNDARY = 15000;
+	static final long SEED = 20240601L;
+
+	private PointSets(){ }
+
+	/**
+	 * Generates uniformly spread points.
+	 * @param n The number of points.
+	 * @return the same points for the same n on every call.
+	 */
+	static PointSet uniform(int n){
+		return new PointGenerator(BOUNDARY, PointGenerator.UNIFORM, SEED + n).generate(n);
+	}
+
+}
@@ -1,8 +0,0 @@
-import java.util.HashMap;
-
-class SegmentMap extends HashMap< Pair<Coordinate>, Double >{
-	SegmentMap(){
-		super();
-	}
-
-}
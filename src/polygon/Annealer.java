@@ -0,0 +1,176 @@
+package polygon;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Simulated annealing over the two-exchange moves of a candidate, lowering the number of intersections.
+ * A move is proposed by drawing two positions at random (optionally at most some distance apart), in O(1), and scored by
+ * the SwapEvaluator against a grid of the current lines, so no neighbour list or child candidate is ever built; an accepted
+ * move swaps the two points in place and moves the (at most four) changed lines in the grid. Worse moves are accepted with probability exp(-delta / T), where the
+ * temperature T follows a CoolingSchedule.
+ * The run stops when no intersections are left, after a number of proposals, or when its time budget runs out, and
+ * returns the candidate with the fewest intersections seen.
+ *
+ * @author Felipe Valverde
+ * @author Murilo Rosa
+ */
+class Annealer {
+
+	private final Candidate current;
+	private final SegmentGrid grid;
+	private final SwapEvaluator evaluator;
+	private final int[] bestTour;
+	private final int[] lines = new int[4];
+	private final SplittableRandom random;
+
+	private CoolingSchedule schedule;
+	private double temperature;
+	private long budget;
+	private int reach;
+
+	private int crossings;
+	private int bestCrossings;
+	private long bestPerimeter;
+	private long proposals;
+	private long accepted;
+
+	/**
+	 * Default constructor for the class Annealer.
+	 * @param start The candidate the run starts from, which is not changed.
+	 * @param seed The seed of the random moves.
+	 */
+	public Annealer(Candidate start, long seed){
+		this.current = new Candidate(start, start.tour.clone());
+		this.grid = SegmentGrid.of(current);
+		this.evaluator = new SwapEvaluator(current, grid);
+		this.bestTour = current.tour.clone();
+		this.random = new SplittableRandom(seed);
+		this.schedule = CoolingSchedule.geometric(0.98);
+		this.temperature = 1.0;
+		this.budget = Long.MAX_VALUE;
+		this.reach = Integer.MAX_VALUE;
+
+		crossings = grid.crossings().length;
+		bestCrossings = crossings;
+		bestPerimeter = current.getPerimeter();
+	}
+
+	// ------------------------- Setters ---------------------------------- //
+
+	/**
+	 * Setter for the cooling schedule.
+	 * @param schedule How the temperature changes after every proposal.
+	 */
+	public void setSchedule(CoolingSchedule schedule){
+		this.schedule = schedule;
+	}
+
+	/**
+	 * Setter for the starting temperature.
+	 * @param temperature The temperature, in intersections: a move adding that many is accepted with probability 1/e.
+	 */
+	public void setTemperature(double temperature){
+		this.temperature = temperature;
+	}
+
+	/**
+	 * Setter for the wall-clock budget.
+	 * @param budget The time, in milliseconds, after which the run stops.
+	 */
+	public void setBudget(long budget){
+		this.budget = budget;
+	}
+
+	/**
+	 * Setter for how far apart in the path the two exchanged points may be.
+	 * Points close in a good path are also close in the plane, so near exchanges move short lines, which are cheap to
+	 * score and more often accepted.
+	 * @param reach The largest distance, in positions, between the two points (any pair when it is n-1 or more).
+	 */
+	public void setReach(int reach){
+		this.reach = Math.max(1, reach);
+	}
+
+	// ------------------------- Getters ---------------------------------- //
+
+	/**
+	 * Getter for the number of proposed moves.
+	 * @return how many moves were scored.
+	 */
+	public long getProposals(){
+		return proposals;
+	}
+
+	/**
+	 * Getter for the number of accepted moves.
+	 * @return how many moves were made.
+	 */
+	public long getAccepted(){
+		return accepted;
+	}
+
+	// ------------------------- Running ---------------------------------- //
+
+	/**
+	 * Anneals until no intersections are left, the number of proposals is reached, or the budget runs out.
+	 * @param maxProposals The largest number of moves to propose.
+	 * @return the candidate with the fewest intersections seen, and among those the first one found.
+	 */
+	public Candidate run(long maxProposals){
+		int n = current.size();
+		long deadline = budget == Long.MAX_VALUE ? Long.MAX_VALUE : System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(budget);
+		long perimeter = current.getPerimeter();
+
+		for(long step = 0; step < maxProposals && crossings != 0 && n > 3; step++) {
+			if((step & 1023) == 0 && System.nanoTime() > deadline)
+				break;
+			proposals++;
+			Stats.count(Stats.Counter.NEIGHBOURS);
+			int p = random.nextInt(n);
+			int q = (p + 1 + random.nextInt(Math.min(reach, n - 1))) % n;
+
+			int delta = evaluator.crossingDelta(p, q);
+			boolean accept = delta <= 0 || random.nextDouble() < Math.exp(-delta / temperature);
+			boolean improved = false;
+			if(accept) {
+				perimeter += evaluator.perimeterDelta(p, q);
+				swap(p, q);
+				crossings += delta;
+				accepted++;
+				Stats.count(Stats.Counter.MOVES_ACCEPTED);
+				if(crossings < bestCrossings) {
+					bestCrossings = crossings;
+					bestPerimeter = perimeter;
+					System.arraycopy(current.tour, 0, bestTour, 0, n);
+					improved = true;
+				}
+			}
+			temperature = schedule.next(temperature, accept, improved);
+		}
+
+		Candidate best = new Candidate(current, bestTour.clone());
+		best.setIntersectionCount(bestCrossings);
+		best.setPerimeter(bestPerimeter);
+		return best;
+	}
+
+	/**
+	 * Exchanges the points at two positions and moves the lines that touch them in the grid.
+	 */
+	private void swap(int p, int q){
+		int n = current.size();
+		int[] tour = current.tour;
+		int point = tour[p];
+		tour[p] = tour[q];
+		tour[q] = point;
+
+		lines[0] = (p - 1 + n) % n;
+		lines[1] = p;
+		lines[2] = (q - 1 + n) % n;
+		lines[3] = q;
+		for(int k = 0; k < 4; k++)
+			grid.add(lines[k], tour[lines[k]], tour[(lines[k] + 1) % n]);		// adding again replaces the line
+	}
+
+}
@@ -0,0 +1,362 @@
+package polygon;
+
+import java.util.Random;
+import java.util.SplittableRandom;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.BooleanSupplier;
+import java.util.function.Consumer;
+import java.util.stream.IntStream;
+
+/**
+ * An ant colony over a set of points, keeping its own pheromone so that several colonies can run side by side.
+ * Ants only consider the k nearest neighbours of the point they are at, which are found once with a k-d tree, and look
+ * further only when all of those were visited; so an ant costs about O(n * k) and the pheromone takes O(n * k) memory.
+ * Every iteration sends out a group of ants at once, on the threads of a pool. While they walk the pheromone is only read,
+ * and once they are all back it is updated in one batch: every segment evaporates, and each ant leaves Q / L on the
+ * segments of its path, where L is the perimeter of the path. The update is split among the threads by the point each
+ * segment starts at, so no two threads ever write to the same value and no locks are needed.
+ *
+ * @author Felipe Valverde
+ * @author Murilo Rosa
+ */
+class AntColony {
+
+	private static final double Q = 1;
+	private static final int NEIGHBOURS = 10;
+
+	private final PointSet points;
+	private final int k;
+	private final int[] neighbours;
+	private final double[] closeness;
+	private final SegmentMap pheromone;
+	private final SplittableRandom random;
+	private int ants;
+	private double evaporation;
+	private ForkJoinPool pool;
+
+	private Candidate best;
+	private int iterations;
+
+	/**
+	 * Default constructor for the class AntColony, which lays the first pheromone along a nearest neighbour path
+	 * from a random start.
+	 * @param points The points the ants walk between.
+	 * @param seed The seed of the colony, from which every ant draws its own.
+	 */
+	public AntColony(PointSet points, long seed){
+		this(points, seed, NEIGHBOURS);
+	}
+
+	/**
+	 * Constructor for the class AntColony with a chosen number of neighbours per point.
+	 * @param points The points the ants walk between.
+	 * @param seed The seed of the colony, from which every ant draws its own.
+	 * @param k How many of the nearest points an ant considers first.
+	 */
+	public AntColony(PointSet points, long seed, int k){
+		this.points = points;
+		this.k = Math.max(0, Math.min(k, points.size() - 1));
+		this.neighbours = new int[points.size() * this.k];
+		this.closeness = new double[neighbours.length];
+		findNeighbours();
+		this.pheromone = new SegmentMap(neighbours, this.k);
+		this.random = new SplittableRandom(seed);
+		this.ants = Math.max(1, Runtime.getRuntime().availableProcessors());
+		this.evaporation = 0.1;
+		this.pool = ForkJoinPool.commonPool();
+
+		Candidate start = new Candidate(points, Candidate.RANDOM_NEAREST_NEIGHBOUR, new Random(random.nextLong()));
+		for(int i = 0; i < start.size(); i++)
+			pheromone.put(start.get(i), start.get((i + 1) % start.size()), 1.0);
+		best = start;
+		iterations = 0;
+	}
+
+	// ------------------------- Setters ---------------------------------- //
+
+	/**
+	 * Setter for the number of ants sent out in every iteration.
+	 * @param ants The number of ants.
+	 */
+	public void setAnts(int ants){
+		this.ants = Math.max(1, ants);
+	}
+
+	/**
+	 * Setter for how much pheromone evaporates between iterations.
+	 * @param evaporation The fraction lost, between 0 and 1.
+	 */
+	public void setEvaporation(double evaporation){
+		this.evaporation = evaporation;
+	}
+
+	/**
+	 * Setter for the pool the ants walk on.
+	 * @param pool The pool, or null to send the ants out one at a time in the calling thread.
+	 */
+	public void setPool(ForkJoinPool pool){
+		this.pool = pool;
+	}
+
+	// ------------------------- Getters ---------------------------------- //
+
+	/**
+	 * Getter for the best path found so far.
+	 * @return the candidate with the fewest intersections, and then the smallest perimeter, of every ant (or the
+	 * starting path if no ant did better).
+	 */
+	public Candidate getBest(){
+		return best;
+	}
+
+	/**
+	 * Getter for the number of iterations run.
+	 * @return how many times the ants were sent out.
+	 */
+	public int getIterations(){
+		return iterations;
+	}
+
+	// ------------------------- Iterations ------------------------------- //
+
+	/**
+	 * Sends out a number of ants, one group per iteration, stopping early if asked to.
+	 * @param ants How many ants to send out in all; the last group only takes the ants still left.
+	 * @param stop Checked before every iteration, and true once no more ants should be sent.
+	 * @return the best path found so far.
+	 */
+	public Candidate run(int ants, BooleanSupplier stop){
+		return run(ants, stop, ant -> {});
+	}
+
+	/**
+	 * Sends out a number of ants, one group per iteration, stopping early if asked to.
+	 * @param ants How many ants to send out in all; the last group only takes the ants still left.
+	 * @param stop Checked before every iteration, and true once no more ants should be sent.
+	 * @param each Receives the best path of every iteration.
+	 * @return the best path found so far.
+	 */
+	public Candidate run(int ants, BooleanSupplier stop, Consumer<Candidate> each){
+		for(int sent = 0; sent < ants && !stop.getAsBoolean(); ) {
+			int group = Math.min(this.ants, ants - sent);
+			each.accept(iterate(group));
+			sent += group;
+		}
+		return best;
+	}
+
+	/**
+	 * Sends out one group of ants and updates the pheromone with their paths.
+	 * The seeds of the ants are drawn before they leave, so the result does not depend on the number of threads.
+	 * @return the best path of this iteration.
+	 */
+	public Candidate iterate(){
+		return iterate(ants);
+	}
+
+	/**
+	 * Sends out a group of a given size, as iterate does.
+	 */
+	private Candidate iterate(int ants){
+		long[] seeds = new long[ants];
+		for(int k = 0; k < ants; k++)
+			seeds[k] = random.nextLong();
+
+		Candidate[] walked = new Candidate[ants];
+		Runnable walk = () -> IntStream.range(0, ants).parallel().forEach(k -> walked[k] = walk(new Random(seeds[k])));
+		if(pool == null)
+			for(int k = 0; k < ants; k++)
+				walked[k] = walk(new Random(seeds[k]));
+		else
+			pool.submit(walk).join();
+
+		update(walked);
+		iterations++;
+
+		Candidate iterationBest = null;
+		for(Candidate ant : walked) {
+			if(isBetter(ant, iterationBest))
+				iterationBest = ant;
+		}
+		if(isBetter(iterationBest, best))
+			best = iterationBest;
+		return iterationBest;
+	}
+
+	/**
+	 * Lists the k nearest neighbours of every point, together with the inverse of the length of the segment to each.
+	 */
+	private void findNeighbours(){
+		KdTree tree = new KdTree(points);
+		int[] found = new int[k + 1];
+		for(int a = 0; a < points.size(); a++) {
+			int count = tree.kNearest(points.xs[a], points.ys[a], k + 1, found);
+			int s = 0;
+			for(int i = 0; i < count && s < k; i++)
+				if(found[i] != a) {
+					neighbours[a * k + s] = found[i];
+					closeness[a * k + s] = 1.0 / Candidate.euclidianDistance(points.xs[a], points.ys[a], points.xs[found[i]], points.ys[found[i]]);
+					s++;
+				}
+		}
+	}
+
+	/**
+	 * Builds the path of one ant, starting at a random point and choosing each next point by roulette.
+	 * The pheromone is only read, so the colony is left as it was.
+	 * @param random The random generator of the ant.
+	 * @return the path of the ant, with its perimeter and intersections counted.
+	 */
+	Candidate walk(Random random){
+		int n = points.size();
+		int[] tour = new int[n];
+		int[] left = new int[n];
+		int[] where = new int[n];
+		for(int i = 0; i < n; i++) {
+			left[i] = i;
+			where[i] = i;
+		}
+		int remaining = n;
+		int cur = random.nextInt(n);	// start at a random
+		long perimeter = 0;		// added up on the way, so the finished path is never walked again for it
+
+		for(int length = 0; length < n; length++) {
+			tour[length] = cur;
+			int last = left[--remaining];		// take cur out of the points left
+			left[where[cur]] = last;
+			where[last] = where[cur];
+			where[cur] = -1;
+			if(remaining > 0) {
+				int from = cur;
+				cur = choose(cur, left, where, remaining, random);
+				perimeter += Candidate.euclidianDistance(points.xs[from], points.ys[from], points.xs[cur], points.ys[cur]);
+			}
+		}
+		perimeter += Candidate.euclidianDistance(points.xs[cur], points.ys[cur], points.xs[tour[0]], points.ys[tour[0]]);
+		Candidate ant = new Candidate(points, tour);
+		ant.setPerimeter(perimeter);
+		ant.getIntersectionCount();
+		return ant;
+	}
+
+	/**
+	 * Chooses the next point of an ant among the neighbours of the current one that were not visited, by roulette: each
+	 * gets a slice proportional to the pheromone on the segment to it times the inverse of its length. If none of those
+	 * segments has pheromone the slices follow the inverse of the length only, and if every neighbour was visited the
+	 * nearest point left is taken.
+	 * @param i current point
+	 * @param left the points still available
+	 * @param where the position of every point in 'left', or -1 if it was visited
+	 * @param count how many entries of 'left' are still available
+	 * @param random the random generator of the ant
+	 * @return the point chosen by the ant.
+	 */
+	private int choose(int i, int[] left, int[] where, int count, Random random){
+		double trails = 0, total = 0;
+		for(int s = 0; s < k; s++)
+			if(where[neighbours[i * k + s]] != -1) {
+				trails += pheromone.getSlot(i, s) * closeness[i * k + s];
+				total += closeness[i * k + s];
+			}
+		if(total <= 0)
+			return nearestLeft(i, left, count);
+		boolean byTrail = trails > 0;
+
+		double target = random.nextDouble() * (byTrail ? trails : total);
+		double sum = 0;
+		int chosen = -1;
+		for(int s = 0; s < k; s++) {
+			int next = neighbours[i * k + s];
+			double weight = where[next] == -1 ? 0 : (byTrail ? pheromone.getSlot(i, s) : 1) * closeness[i * k + s];
+			if(weight <= 0)
+				continue;
+			chosen = next;
+			sum += weight;
+			if(sum > target)
+				break;
+		}
+		return chosen;		// rounding can leave target just above the sum, so the last point with a slice is kept
+	}
+
+	/**
+	 * Scans every point left for the one nearest to the current point, the one with the smallest index in case of a tie.
+	 */
+	private int nearestLeft(int i, int[] left, int count){
+		int nearest = -1;
+		long best = Long.MAX_VALUE;
+		for(int j = 0; j < count; j++) {
+			long dx = (long)points.xs[left[j]] - points.xs[i], dy = (long)points.ys[left[j]] - points.ys[i];
+			long distance = dx * dx + dy * dy;
+			if(distance < best || (distance == best && left[j] < nearest)) {
+				best = distance;
+				nearest = left[j];
+			}
+		}
+		return nearest;
+	}
+
+	/**
+	 * Evaporates the pheromone and lays the deposit of every ant.
+	 * Each thread takes the segments that start at the points of one stripe, so they never touch the same value. The
+	 * segments of the ants are first sorted into their stripes, one ant per task, so that every segment is only looked
+	 * at once by the stripe it belongs to; within a stripe they are laid ant by ant, in the order of each path.
+	 */
+	private void update(Candidate[] walked){
+		int count = walked.length;
+		double[] deposit = new double[count];
+		for(int k = 0; k < count; k++)
+			deposit[k] = walked[k].getPerimeter() > 0 ? Q / walked[k].getPerimeter() : 0;
+
+		if(pool == null) {
+			pheromone.scale(1 - evaporation);
+			for(int k = 0; k < count; k++) {
+				Candidate ant = walked[k];
+				for(int i = 0, n = ant.size(); i < n; i++)
+					pheromone.add(ant.get(i), ant.get((i + 1) % n), deposit[k]);
+			}
+			return;
+		}
+
+		// the segments of ant k starting in stripe s go in [begin[s * count + k], begin[s * count + k + 1])
+		int stripes = pool.getParallelism();
+		int[] begin = new int[stripes * count + 1];
+		pool.submit(() -> IntStream.range(0, count).parallel().forEach(k -> {
+			Candidate ant = walked[k];
+			for(int i = 0; i < ant.size(); i++)
+				begin[(ant.get(i) % stripes) * count + k + 1]++;
+		})).join();
+		for(int g = 1; g < begin.length; g++)
+			begin[g] += begin[g - 1];
+		int[] from = new int[begin[begin.length - 1]], to = new int[from.length];
+		int[] next = begin.clone();
+		pool.submit(() -> IntStream.range(0, count).parallel().forEach(k -> {
+			Candidate ant = walked[k];
+			for(int i = 0, n = ant.size(); i < n; i++) {
+				int a = ant.get(i), slot = next[(a % stripes) * count + k]++;
+				from[slot] = a;
+				to[slot] = ant.get((i + 1) % n);
+			}
+		})).join();
+
+		pool.submit(() -> IntStream.range(0, stripes).parallel().forEach(s -> {
+			for(int a = s; a < points.size(); a += stripes)
+				pheromone.scaleRow(a, 1 - evaporation);
+			for(int k = 0; k < count; k++)
+				for(int e = begin[s * count + k]; e < begin[s * count + k + 1]; e++)
+					pheromone.add(from[e], to[e], deposit[k]);
+		})).join();
+	}
+
+	/**
+	 * Checks if a path has fewer intersections than another, or as many and a smaller perimeter.
+	 */
+	private static boolean isBetter(Candidate candidate, Candidate other){
+		if(other == null)
+			return candidate != null;
+		if(candidate == null)
+			return false;
+		return candidate.getIntersectionCount() < other.getIntersectionCount()
+			|| (candidate.getIntersectionCount() == other.getIntersectionCount() && candidate.getPerimeter() < other.getPerimeter());
+	}
+
+}
@@ -0,0 +1,249 @@
+package polygon;
+
+import java.io.PrintWriter;
+import java.io.Reader;
+import java.util.Collections;
+import java.util.InputMismatchException;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Scanner;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Solves many instances in one JVM, reading them one after another from a stream and handing them to a pool of workers.
+ * Each instance is written with the same answers Main asks for, so any of the tests/set* files is a valid instance:
+ * <pre>
+ * N                         number of points (0 is skipped)
+ * 1 | 2 | 3 | 4             points entered below, or randomly generated (uniform, clustered, gaussian)
+ * x y (N times) | M         the points, or the boundary of the random ones
+ * 1 | 2 | 3 | 4 | 5 | 6 | 7 random permutation, nearest neighbour, ant colony, multi-start, star-shaped,
+ *                           x-monotone, space partitioning
+ * ants | starts budget      only for the ant colony and the multi-start
+ * 0 | 1 | ... | 7           the improvement strategy (0 keeps the first candidate)
+ * iterations                only for simulated annealing
+ * </pre>
+ * Only a few instances are read ahead of the workers, so the input may be far larger than memory. Every result is
+ * written as one line as soon as it is found, so the lines come in the order the instances finish:
+ * <pre>
+ * instance points intersections perimeter milliseconds [path]
+ * </pre>
+ * With a Portfolio, the generator and the strategy of every instance are still read, but the instance is solved by
+ * racing the pipelines of the portfolio instead.
+ *
+ * @author Felipe Valverde
+ * @author Murilo Rosa
+ */
+class BatchRunner {
+
+	private final int threads;
+	private long budget;
+	private long seed;
+	private Portfolio portfolio;
+
+	/**
+	 * Default constructor for the class BatchRunner.
+	 * @param threads The number of instances solved at the same time.
+	 */
+	public BatchRunner(int threads){
+		this.threads = Math.max(1, threads);
+		this.budget = Long.MAX_VALUE;
+		this.seed = 0;
+	}
+
+	/**
+	 * Setter for the wall-clock budget of every instance.
+	 * @param budget The time, in milliseconds, after which an instance returns its best candidate so far.
+	 */
+	public void setBudget(long budget){
+		this.budget = budget;
+	}
+
+	/**
+	 * Setter for the seed of the runner; instance i uses a seed drawn from it and i.
+	 * @param seed The seed.
+	 */
+	public void setSeed(long seed){
+		this.seed = seed;
+	}
+
+	/**
+	 * Setter for the portfolio that solves every instance, in place of the generator and strategy the instance asks for.
+	 * @param portfolio The portfolio, whose budget is set to the one of the runner, or null to use a Solver.
+	 */
+	public void setPortfolio(Portfolio portfolio){
+		this.portfolio = portfolio;
+	}
+
+	// ------------------------- Running ---------------------------------- //
+
+	/**
+	 * Reads and solves every instance of a stream.
+	 * @param in The instances.
+	 * @param out Where the results are written.
+	 * @return the number of instances read.
+	 * @throws InterruptedException if the thread is interrupted while waiting for the workers.
+	 */
+	public int run(Reader in, PrintWriter out) throws InterruptedException {
+		return run(Collections.singletonList(in), out);
+	}
+
+	/**
+	 * Reads and solves every instance of many streams, numbering the instances across all of them.
+	 * An instance with a wrong value (a repeated point, an unknown generator or strategy, a boundary too small) is read
+	 * to its end and reported, and the next one is read as usual. An instance that cannot be read to its end (an
+	 * unknown kind of input, a missing or malformed number) is reported, and the rest of its stream is skipped, since
+	 * there is no telling where the next instance starts.
+	 * @param sources The streams of instances, read one after another.
+	 * @param out Where the results are written.
+	 * @return the number of instances read.
+	 * @throws InterruptedException if the thread is interrupted while waiting for the workers.
+	 */
+	public int run(List<Reader> sources, PrintWriter out) throws InterruptedException {
+		if(portfolio != null)
+			portfolio.setBudget(budget);
+		ExecutorService pool = Executors.newFixedThreadPool(threads);
+		Semaphore ahead = new Semaphore(2 * threads);		// instances read but not finished
+		int count = 0;
+		try {
+			for(Reader in : sources)
+				count = run(new Scanner(in), out, pool, ahead, count);
+		} finally {
+			pool.shutdown();
+			pool.awaitTermination(Long.MAX_VALUE, TimeUnit.NANOSECONDS);
+			out.flush();
+		}
+		return count;
+	}
+
+	/**
+	 * Reads the instances of one stream and hands them to the workers.
+	 * @return the number of instances read so far, in this stream and the ones before it.
+	 */
+	private int run(Scanner scanner, PrintWriter out, ExecutorService pool, Semaphore ahead, int count)
+			throws InterruptedException {
+		while(scanner.hasNext()) {
+			int index = count;
+			long instanceSeed = seed + 0x9E3779B97F4A7C15L * (index + 1);
+			Solver solver = new Solver();
+			solver.setSeed(instanceSeed);
+			solver.setBudget(budget);
+			PointSet points;
+			try {
+				points = read(scanner, solver, instanceSeed);
+			} catch(NoSuchElementException e) {
+				write(out, index + " error: " + (e.getMessage() != null ? e.getMessage() : "Invalid input.")
+					+ " The rest of the stream is skipped.");
+				return count + 1;
+			} catch(IllegalArgumentException e) {
+				write(out, index + " error: " + e.getMessage());
+				count++;
+				continue;
+			}
+			if(points == null)
+				continue;
+			count++;
+
+			ahead.acquire();
+			pool.submit(() -> {
+				try {
+					long start = System.nanoTime();
+					Candidate result = portfolio != null ? portfolio.solve(points, instanceSeed) : solver.solve(points);
+					long millis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+					write(out, index + " " + points.size() + " " + result.getIntersectionCount() + " "
+						+ result.getPerimeter() + " " + millis + " " + path(result));
+				} catch(InterruptedException e) {
+					Thread.currentThread().interrupt();
+				} catch(RuntimeException e) {
+					write(out, index + " error: " + e);
+				} finally {
+					ahead.release();
+				}
+			});
+		}
+		return count;
+	}
+
+	/**
+	 * Reads one instance to its end, and only then checks it and sets up its solver, so a wrong value never leaves the
+	 * scanner in the middle of the instance.
+	 * @return the points of the instance, or null for an instance with no points.
+	 * @throws NoSuchElementException if the instance cannot be read to its end.
+	 * @throws IllegalArgumentException if the instance was read but holds a wrong value.
+	 */
+	private PointSet read(Scanner scanner, Solver solver, long instanceSeed){
+		int n = scanner.nextInt();
+		if(n <= 0)
+			return null;
+		int input = scanner.nextInt();
+		int[] xs = null, ys = null;
+		int boundary = 0;
+		if(input == 1) {
+			xs = new int[n];
+			ys = new int[n];
+			for(int i = 0; i < n; i++) {
+				xs[i] = scanner.nextInt();
+				ys[i] = scanner.nextInt();
+			}
+		}
+		else if(input >= 2 && input <= 4)
+			boundary = scanner.nextInt();
+		else
+			throw new InputMismatchException("Invalid input.");		// the length of the rest of the instance is unknown
+
+		byte generator = scanner.nextByte();
+		int extra = 0;
+		long limit = Long.MAX_VALUE;
+		if(generator == Solver.ANT_COLONY)
+			extra = scanner.nextInt();
+		else if(generator == Solver.MULTI_START) {
+			extra = scanner.nextInt();
+			limit = scanner.nextLong();
+		}
+		byte strategy = scanner.nextByte();
+		long iterations = strategy == Solver.ANNEALING ? scanner.nextLong() : 0;
+
+		solver.setGenerator(generator);
+		if(generator == Solver.ANT_COLONY)
+			solver.setAnts(extra);
+		else if(generator == Solver.MULTI_START) {
+			solver.setStarts(extra);
+			solver.setBudget(Math.min(budget, limit));
+		}
+		solver.setStrategy(strategy);
+		if(strategy == Solver.ANNEALING)
+			solver.setIterations(iterations);
+
+		if(input == 1) {
+			LongHashSet read = new LongHashSet(n);
+			for(int i = 0; i < n; i++)
+				if(!read.add(((long)xs[i] << 32) | (ys[i] & 0xFFFFFFFFL)))
+					throw new IllegalArgumentException("Duplicate coordinate.");
+			return new PointSet(xs, ys);
+		}
+		long start = Stats.start();
+		PointSet points = new PointGenerator(boundary, (byte)(input - 1), instanceSeed).generate(n);
+		Stats.stop(Stats.Phase.GENERATION, start, n);
+		return points;
+	}
+
+	private static String path(Candidate candidate){
+		StringBuilder line = new StringBuilder("[");
+		for(int i = 0; i < candidate.size(); i++) {
+			if(i > 0)
+				line.append(", ");
+			line.append(candidate.points.get(candidate.get(i)).printName());
+		}
+		return line.append(']').toString();
+	}
+
+	private static void write(PrintWriter out, String line){
+		synchronized(out) {
+			out.println(line);
+			out.flush();
+		}
+	}
+
+}
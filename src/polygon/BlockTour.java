@@ -0,0 +1,223 @@
+package polygon;
+
+/**
+ * A closed path stored as a list of blocks of about sqrt(n) points, each of which can be read backwards.
+ * Reversing a stretch of the path splits at most two blocks and then only flips and reorders whole blocks,
+ * so it costs O(sqrt(n)) instead of the O(n) of reversing an array.
+ * Every point also remembers its block and its place inside it, so finding its position costs O(1).
+ *
+ * @author Felipe Valverde
+ * @author Murilo Rosa
+ */
+class BlockTour {
+
+	private final int n;
+	private final int blockSize;
+	private int[][] data;		// the points of each block, stored in the order they were copied in
+	private int[] length;
+	private boolean[] reversed;
+	private int[] start;		// position of the first point of each block
+	private int[] order;		// the blocks, in the order they are visited
+	private int blocks;
+	private final int[] blockOf;
+	private final int[] slot;
+
+	/**
+	 * Default constructor for the class BlockTour.
+	 * @param tour The points in the order they are visited.
+	 */
+	public BlockTour(int[] tour){
+		this.n = tour.length;
+		this.blockSize = Math.max(1, (int)Math.ceil(Math.sqrt(n)));
+		this.blockOf = new int[n];
+		this.slot = new int[n];
+		rebuild(tour);
+	}
+
+	// ------------------------- Getters ---------------------------------- //
+
+	/**
+	 * Getter for the number of points.
+	 * @return the number of points in the path.
+	 */
+	public int size(){
+		return n;
+	}
+
+	/**
+	 * Getter for the point at a given position of the path.
+	 * @param pos The position in the path.
+	 * @return the point visited at that position.
+	 */
+	public int get(int pos){
+		int b = order[blockAt(pos)];
+		int offset = pos - start[b];
+		return data[b][reversed[b] ? length[b] - 1 - offset : offset];
+	}
+
+	/**
+	 * Finds where a point is visited.
+	 * @param point The point.
+	 * @return its position in the path.
+	 */
+	public int position(int point){
+		int b = blockOf[point];
+		return start[b] + (reversed[b] ? length[b] - 1 - slot[point] : slot[point]);
+	}
+
+	/**
+	 * Finds the point visited after a given one.
+	 * @param point The point.
+	 * @return the next point of the closed path.
+	 */
+	public int next(int point){
+		int pos = position(point) + 1;
+		return get(pos == n ? 0 : pos);
+	}
+
+	/**
+	 * Finds the point visited before a given one.
+	 * @param point The point.
+	 * @return the previous point of the closed path.
+	 */
+	public int prev(int point){
+		int pos = position(point);
+		return get(pos == 0 ? n - 1 : pos - 1);
+	}
+
+	/**
+	 * Copies the path into an array.
+	 * @return the points in the order they are visited.
+	 */
+	public int[] toArray(){
+		int[] tour = new int[n];
+		int pos = 0;
+		for(int k = 0; k < blocks; k++) {
+			int b = order[k];
+			for(int i = 0; i < length[b]; i++)
+				tour[pos++] = data[b][reversed[b] ? length[b] - 1 - i : i];
+		}
+		return tour;
+	}
+
+	// ------------------------- Reversal --------------------------------- //
+
+	/**
+	 * Reverses the order of the points between two positions, both included.
+	 * @param i The first position.
+	 * @param j The last position, not smaller than i.
+	 */
+	public void reverse(int i, int j){
+		if(i >= j)
+			return;
+		split(i);
+		if(j + 1 < n)
+			split(j + 1);
+		int first = blockAt(i), last = blockAt(j);
+		for(int lo = first, hi = last; lo < hi; lo++, hi--) {
+			int swap = order[lo];
+			order[lo] = order[hi];
+			order[hi] = swap;
+		}
+		for(int k = first; k <= last; k++)
+			reversed[order[k]] = !reversed[order[k]];
+		if(blocks > 2 * blockSize + 2)
+			rebuild(toArray());
+		else
+			updateStarts();
+	}
+
+	/**
+	 * Makes sure a block starts at a given position, cutting the block that holds it in two.
+	 * @param pos The position where a block must start.
+	 */
+	private void split(int pos){
+		int k = blockAt(pos);
+		int b = order[k];
+		int offset = pos - start[b];
+		if(offset == 0)
+			return;
+
+		int[] head = new int[offset], tail = new int[length[b] - offset];
+		for(int i = 0; i < length[b]; i++) {
+			int point = data[b][reversed[b] ? length[b] - 1 - i : i];
+			if(i < offset)
+				head[i] = point;
+			else
+				tail[i - offset] = point;
+		}
+		int c = newBlock(tail);
+		fill(b, head);
+
+		System.arraycopy(order, k + 1, order, k + 2, blocks - 2 - k);
+		order[k + 1] = c;
+		start[c] = start[b] + offset;
+	}
+
+	/**
+	 * Finds the place, in the list of blocks, of the block holding a position.
+	 */
+	private int blockAt(int pos){
+		int lo = 0, hi = blocks - 1;
+		while(lo < hi) {
+			int mid = (lo + hi + 1) >>> 1;
+			if(start[order[mid]] <= pos)
+				lo = mid;
+			else
+				hi = mid - 1;
+		}
+		return lo;
+	}
+
+	// ------------------------- Blocks ----------------------------------- //
+
+	/**
+	 * Cuts a path into blocks of the default size.
+	 * @param tour The points in the order they are visited.
+	 */
+	private void rebuild(int[] tour){
+		int capacity = 2 * blockSize + 4;
+		data = new int[capacity][];
+		length = new int[capacity];
+		reversed = new boolean[capacity];
+		start = new int[capacity];
+		order = new int[capacity];
+		blocks = 0;
+		for(int from = 0; from < n; from += blockSize) {
+			int to = Math.min(n, from + blockSize);
+			int[] points = new int[to - from];
+			System.arraycopy(tour, from, points, 0, to - from);
+			int b = newBlock(points);
+			order[b] = b;
+		}
+		updateStarts();
+	}
+
+	/**
+	 * Adds a block. The caller is responsible for placing it in the list of blocks.
+	 */
+	private int newBlock(int[] points){
+		int b = blocks++;
+		fill(b, points);
+		return b;
+	}
+
+	private void fill(int b, int[] points){
+		data[b] = points;
+		length[b] = points.length;
+		reversed[b] = false;
+		for(int i = 0; i < points.length; i++) {
+			blockOf[points[i]] = b;
+			slot[points[i]] = i;
+		}
+	}
+
+	private void updateStarts(){
+		int pos = 0;
+		for(int k = 0; k < blocks; k++) {
+			start[order[k]] = pos;
+			pos += length[order[k]];
+		}
+	}
+
+}
@@ -0,0 +1,577 @@
+package polygon;
+
+import java.util.Arrays;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * A class to represent a series of lines connecting points in a 2D space.
+ * The methods and variables in this class aim to build a program which can consistently generate from a series of points a polygon, or, more technically described,
+ * a Hamilton cycle with no intersections.
+ * The points themselves live in a shared PointSet, and a candidate only keeps the order in which they are visited.
+ *
+ * @author Felipe Valverde
+ * @author Murilo Rosa
+ *
+ */
+class Candidate {
+
+	public static final byte RANDOM_PERMUTATION = 1;
+	public static final byte NEAREST_NEIGHBOUR = 2;
+	public static final byte RANDOM_NEAREST_NEIGHBOUR = 3;
+	public static final byte STAR_SHAPED = 5;
+	public static final byte X_MONOTONE = 6;
+	public static final byte SPACE_PARTITIONING = 7;
+
+	final PointSet points;
+	final int[] tour;
+	private int intersectionCount;
+	private long perimeter = -1;		// -1 until it is asked for or set by the move that built the candidate
+	private long tourHash;
+	private boolean hashed;
+	NeighbourList neighbours;
+	IntersectionList conflicts;		// handed down from parent to child along the less-conflicts moves
+	int movedFirst = -1, movedSecond = -1;
+	ForkJoinPool pool = ForkJoinPool.commonPool();		// where the neighbours are searched, handed down to every child
+
+	{
+		Stats.count(Stats.Counter.CANDIDATES);		// runs first in every constructor
+	}
+
+	// ------------------------- Constructors ------------------------------ //
+
+	/**
+	 * Constructor for the class Candidate, visiting the points in the order they were given.
+	 * @param points The points that serve as the starting point for generating the initial candidate.
+	 */
+	public Candidate(PointSet points){
+		this.points = points;
+		this.tour = new int[points.size()];
+		for(int i = 0; i < tour.length; i++)
+			tour[i] = i;
+		intersectionCount = -1;
+		neighbours = null;
+	}
+
+	/**
+	 * Constructor for the class Candidate, visiting the points in a given order.
+	 * @param points The points of the path.
+	 * @param tour The order in which the points are visited.
+	 */
+	public Candidate(PointSet points, int[] tour){
+		this.points = points;
+		this.tour = tour;
+		intersectionCount = -1;
+		neighbours = null;
+	}
+
+	/**
+	 * Constructor for a child of the class Candidate.
+	 * The child does not keep its parent, so a long search only holds on to the candidates it still uses.
+	 * @param parent The candidate which we want our new candidate to be a son of.
+	 */
+	public Candidate(Candidate parent){
+		this.points = parent.points;
+		this.tour = parent.tour.clone();
+		this.pool = parent.pool;
+		intersectionCount = -1;
+		neighbours = null;
+	}
+
+	/**
+	 * Constructor for a child of the class Candidate that visits the points in a given order.
+	 * @param parent The candidate which we want our new candidate to be a son of.
+	 * @param tour The order in which the points are visited.
+	 */
+	public Candidate(Candidate parent, int[] tour){
+		this.points = parent.points;
+		this.tour = tour;
+		this.pool = parent.pool;
+		intersectionCount = -1;
+		neighbours = null;
+	}
+
+	/**
+	 * Constructor for a Candidate which takes the selected method and the random generator it draws from.
+	 * @param points The points to build the Candidate.
+	 * @param generator The choice of method: RANDOM_PERMUTATION, NEAREST_NEIGHBOUR, RANDOM_NEAREST_NEIGHBOUR (which
+	 * starts at a random point), or STAR_SHAPED, X_MONOTONE and SPACE_PARTITIONING, which build simple polygons directly.
+	 * @param random The random generator, so that a seeded one always builds the same candidate.
+	 */
+	public Candidate(PointSet points, byte generator, Random random){
+		this.points = points;
+		this.tour = new int[points.size()];
+
+		KdTree remaining;
+		int cur;
+		switch(generator){
+			case RANDOM_PERMUTATION:
+				for(int i = 0; i < tour.length; i++)
+					tour[i] = i;
+				for(int i = tour.length - 1; i > 0; i--) {
+					int j = random.nextInt(i + 1);
+					int swap = tour[i];
+					tour[i] = tour[j];
+					tour[j] = swap;
+				}
+				break;
+			case NEAREST_NEIGHBOUR:
+				remaining = new KdTree(points);
+				cur = 0;
+				for(int i = 0; cur != -1; i++) {
+					tour[i] = cur;
+					remaining.remove(cur);
+					cur = findNearest(cur, remaining);
+				}
+				break;
+			case RANDOM_NEAREST_NEIGHBOUR:		// from a random start, which seeds the ant colony
+				remaining = new KdTree(points);
+				cur = random.nextInt(points.size());	// start at a random
+				for(int i = 0; cur != -1; i++) {
+					tour[i] = cur;
+					remaining.remove(cur);
+					cur = findNearest(cur, remaining);
+				}
+				break;
+			case STAR_SHAPED:		// already simple: sorted by angle around the leftmost point
+				PolygonBuilder.starShaped(points, tour);
+				break;
+			case X_MONOTONE:		// already simple: an upper and a lower chain from left to right
+				PolygonBuilder.xMonotone(points, tour);
+				break;
+			case SPACE_PARTITIONING:		// already simple: split at random points, like a quicksort
+				PolygonBuilder.spacePartitioning(points, tour, random);
+				break;
+			default:		// preferably throw Exception
+				intersectionCount = -1;
+				return;
+		}
+
+		intersectionCount = -1;
+		neighbours = null;
+	}
+
+	// ------------------------- Setters ---------------------------------- //
+
+	/**
+	 * Setter for the pool that finds the crossings and searches the moves of this candidate and of every candidate
+	 * reached from it, so that separate searches can be given separate pools.
+	 * @param pool The pool, or null to do everything in the calling thread.
+	 */
+	public void setPool(ForkJoinPool pool){
+		this.pool = pool;
+	}
+
+	// ------------------------- Getters ---------------------------------- //
+
+	/**
+	 * Getter for the perimeter.
+	 * It is computed the first time it is asked for, unless the move that built the candidate already knew it from the
+	 * lines it changed, so children of a two-exchange never walk their whole path.
+	 * @return the perimeter (with squared euclidian distances).
+	 */
+	public long getPerimeter() {
+		if(perimeter == -1)
+			perimeter = calculatePerim();
+		return this.perimeter;
+	}
+
+	/**
+	 * Setter for the perimeter, when it is already known.
+	 * @param perimeter The perimeter of this candidate.
+	 */
+	void setPerimeter(long perimeter) {
+		this.perimeter = perimeter;
+	}
+
+	/**
+	 * Checks if the perimeter was already computed or set, so asking for it costs nothing.
+	 * @return true if the perimeter is known.
+	 */
+	boolean isPerimeterKnown() {
+		return perimeter != -1;
+	}
+
+	/**
+	 * Getter for the tour hash: the sum of a 64-bit hash of every line, which does not depend on where the path starts
+	 * nor on which way it goes, so every way of writing the same polygon has the same hash.
+	 * It is computed the first time it is asked for, unless the move that built the candidate already knew it.
+	 * @return the tour hash.
+	 */
+	public long getTourHash() {
+		if(!hashed) {
+			long hash = 0;
+			for(int j = 0; j < tour.length; j++)
+				hash += edgeHash(tour[j], tour[j + 1 < tour.length ? j + 1 : 0]);
+			tourHash = hash;
+			hashed = true;
+		}
+		return tourHash;
+	}
+
+	/**
+	 * Setter for the tour hash, when it is already known.
+	 * @param tourHash The tour hash of this candidate.
+	 */
+	void setTourHash(long tourHash) {
+		this.tourHash = tourHash;
+		this.hashed = true;
+	}
+
+	/**
+	 * Finds how much swapping two positions changes the tour hash, looking only at the (at most four) lines that change.
+	 * @param p The first position.
+	 * @param q The second position.
+	 * @return the tour hash of the neighbour minus the one of the candidate.
+	 */
+	long swapHashDelta(int p, int q) {
+		int n = tour.length;
+		int beforeP = (p + n - 1) % n, beforeQ = (q + n - 1) % n;
+		long delta = lineHashDelta(beforeP, p, q) + lineHashDelta(p, p, q);
+		if(beforeQ != beforeP && beforeQ != p)
+			delta += lineHashDelta(beforeQ, p, q);
+		if(q != beforeP && q != p)
+			delta += lineHashDelta(q, p, q);
+		return delta;
+	}
+
+	/**
+	 * Finds how much swapping two positions changes the hash of the line starting at position i.
+	 */
+	private long lineHashDelta(int i, int p, int q) {
+		int j = i + 1 < tour.length ? i + 1 : 0;
+		int a = i == p ? tour[q] : i == q ? tour[p] : tour[i];
+		int b = j == p ? tour[q] : j == q ? tour[p] : tour[j];
+		return edgeHash(a, b) - edgeHash(tour[i], tour[j]);
+	}
+
+	/**
+	 * Hashes the line between two points, the same way in both directions.
+	 * @param a The index of the first point.
+	 * @param b The index of the second point.
+	 * @return a well mixed 64-bit hash of the line.
+	 */
+	static long edgeHash(int a, int b) {
+		long key = a < b ? ((long)a << 32) | b : ((long)b << 32) | a;
+		key = (key ^ (key >>> 30)) * 0xBF58476D1CE4E5B9L;
+		key = (key ^ (key >>> 27)) * 0x94D049BB133111EBL;
+		return key ^ (key >>> 31);
+	}
+
+	/**
+	 * Getter for the number of points in the path.
+	 * @return the number of points visited by this candidate.
+	 */
+	public int size() {
+		return tour.length;
+	}
+
+	/**
+	 * Getter for the point at a given position of the path.
+	 * @param i The position in the path.
+	 * @return the index, in the PointSet, of the point visited at position i.
+	 */
+	public int get(int i) {
+		return tour[i];
+	}
+
+	/**
+	 * Getter for the X value of the point at a given position of the path.
+	 * @param i The position in the path.
+	 * @return x value.
+	 */
+	public int getX(int i) {
+		return points.xs[tour[i]];
+	}
+
+	/**
+	 * Getter for the Y value of the point at a given position of the path.
+	 * @param i The position in the path.
+	 * @return y value.
+	 */
+	public int getY(int i) {
+		return points.ys[tour[i]];
+	}
+
+	// ------------------------- Checks ----------------------------------- //
+
+	/**
+	 * Guarantees that the candidate did not add, delete or repeat any node.
+	 * @return true if the candidate visits every point exactly once.
+	 */
+	public boolean checkIntegrity(){
+		if(tour.length != points.size())
+			return false;
+		boolean[] seen = new boolean[tour.length];
+		for(int point : tour) {
+			if(point < 0 || point >= seen.length || seen[point])
+				return false;
+			seen[point] = true;
+		}
+		return true;
+	}
+
+	/**
+	 * Two candidates are equal if they visit the same points in the same order.
+	 */
+	@Override
+	public boolean equals(Object o) {
+		if(this==o) return true;
+		if(o==null) return false;
+		if(getClass()!=o.getClass()) return false;
+		return Arrays.equals(this.tour, ((Candidate) o).tour);
+	}
+
+	@Override
+	public int hashCode() {
+		return Arrays.hashCode(tour);
+	}
+
+	// ------------------------- Initial Generation ----------------------- //
+
+	/**
+	 * Generates a random permutation of the points in an array.
+	 *
+	 * @param base   The points we wish to operate on.
+	 * @param random The random generator the order is drawn from.
+	 * @return The Candidate containing the points in a random order.
+	 */
+	public static Candidate randomPermutation(PointSet base, Random random) {
+		return new Candidate(base, RANDOM_PERMUTATION, random);
+	}
+
+	/**
+	 * Insert into an ArrayList the neighbours sorted by who is nearest to
+	 * the starting point.
+	 *
+	 * @param base   The points we wish to operate on.
+	 * @return The Candidate containing the points sorted by the Nearest Neighbour technique.
+	 */
+	public static Candidate nearestNeighbour(PointSet base) {
+		return new Candidate(base, NEAREST_NEIGHBOUR, new Random(0));		// which draws nothing
+	}
+
+	// ------------------------- Calculations ----------------------------- //
+
+	/**
+	 * Find the square of the euclidian distance between two points.
+	 *
+	 * @param x1 X coordinate of the first point.
+	 * @param y1 Y coordinate of the first point.
+	 * @param x2 X coordinate of the second point.
+	 * @param y2 Y coordinate of the second point.
+	 * @return the square of the euclidian distance, exact while the coordinates are within 2^30 of each other.
+	 */
+	static long euclidianDistance(int x1, int y1, int x2, int y2) {
+		long dx = (long)x1 - x2, dy = (long)y1 - y2;
+		return dx * dx + dy * dy;
+	}
+
+	/**
+	 * Find the square of the euclidian distance between two points of this candidate's set.
+	 * @param a The index of the first point.
+	 * @param b The index of the second point.
+	 * @return the square of the euclidian distance.
+	 */
+	public long euclidianDistance(int a, int b) {
+		return euclidianDistance(points.xs[a], points.ys[a], points.xs[b], points.ys[b]);
+	}
+
+	/**
+	 *
+	 * @param none
+	 * @return the preimeter of the path given by this Candidate.
+	 */
+	public long calculatePerim(){
+		long curPerimeter = 0;
+		for(int j = 0; j < this.size(); j++) {
+			if(j < this.size()-1)
+				curPerimeter += euclidianDistance(tour[j], tour[j+1]);
+			else
+				curPerimeter += euclidianDistance(tour[j], tour[0]);
+		}
+		return curPerimeter;
+	}
+
+	/**
+	 * Counts how many lines cross in the present candidate.
+	 * @return an integer with the number of intersections.
+	 */
+	public int getIntersectionCount(){
+		if(intersectionCount == -1)
+			findCrossings();
+		return intersectionCount;
+	}
+
+	/**
+	 * Checks if the present candidate is a simple polygon, stopping at the first intersection found.
+	 * When the number of intersections is not known yet, a sweep answers in O(n log n) without counting them all.
+	 * @return true if no lines cross.
+	 */
+	public boolean isSimple(){
+		if(intersectionCount != -1)
+			return intersectionCount == 0;
+		if(SweepLine.firstCrossing(this) != -1)
+			return false;
+		intersectionCount = 0;
+		return true;
+	}
+
+	/**
+	 * Setter for the number of intersections, when it is already known.
+	 * @param intersectionCount The number of intersections of this candidate.
+	 */
+	void setIntersectionCount(int intersectionCount){
+		this.intersectionCount = intersectionCount;
+	}
+
+	/**
+	 * Finds every pair of lines that cross in the present candidate, where line i goes from position i to the next one.
+	 * @return the crossing pairs (i, j), with i &lt; j, packed as (i &lt;&lt; 32 | j) and sorted.
+	 */
+	long[] findCrossings(){
+		long[] crossings = SegmentGrid.of(this).crossings();
+		intersectionCount = crossings.length;
+		return crossings;
+	}
+
+	/**
+	 * Finds the nearest of the non-visited points.
+	 * Ties are broken by the smallest index.
+	 *
+	 * @param cur       The index of the point we are measuring distances from.
+	 * @param remaining The tree holding the points not visited yet.
+	 * @return the index of the nearest point, or -1 if every point was visited.
+	 */
+	private int findNearest(int cur, KdTree remaining) {
+		return remaining.nearest(points.xs[cur], points.ys[cur]);
+	}
+
+	// ------------------------- Neighbour Searching --------------------- //
+
+	/**
+	 * Moves to a neighbour with one of the improvement strategies.
+	 * @param strategy The strategy, numbered as in the menu (1 best-improvement, 2 first-improvement, 3 less-conflicts, 4 random).
+	 * @param random The random generator the random strategy draws from.
+	 * @return the chosen neighbour.
+	 */
+	public Candidate improve(byte strategy, Random random) {
+		return improve(strategy, null, random);
+	}
+
+	/**
+	 * Moves to a neighbour with one of the improvement strategies, never to one whose tour hash is tabu.
+	 * @param strategy The strategy, numbered as in the menu (1 best-improvement, 2 first-improvement, 3 less-conflicts, 4 random).
+	 * @param tabu The tour hashes that may not be reached, or null to allow every neighbour.
+	 * @param random The random generator the random strategy draws from, so that a seeded one always makes the same moves.
+	 * @return the chosen neighbour, or null if every neighbour is tabu.
+	 */
+	public Candidate improve(byte strategy, TabuList tabu, Random random) {
+		if(neighbours == null && strategy != 3)
+			neighbours = new NeighbourList(this);
+		switch(strategy) {
+			case 1:
+				return neighbours.getSmallestPerimeter(tabu);
+			case 2:
+				return neighbours.getFirstAllowed(tabu);
+			case 3:
+				return improveLessConflict(tabu);
+			case 4:
+				return neighbours.getRandom(random, tabu);
+			default:
+				throw new IllegalArgumentException("Unknown strategy " + strategy);
+		}
+	}
+
+	/**
+	 * Checks the perimeter of every neighbour candidate and finds the smallest.
+	 * @return the candidate with the smallest perimeter.
+	 */
+	public Candidate improveBestFirst() {
+		if(neighbours == null)
+			neighbours = new NeighbourList(this);
+		return neighbours.getSmallestPerimeter();
+	}
+
+	/**
+	 * Chooses the first candidate in the list of neighbours.
+	 * @return the candidate ate index 0 in the neighbour list.
+	 */
+	public Candidate improveFirst(){
+		if(neighbours == null)
+			neighbours = new NeighbourList(this);
+		return neighbours.get(0);
+	}
+
+	/**
+	 * Moves away from the line with the most conflicts, looking at the other crossing lines only if that does not help.
+	 * @return the neighbour chosen, or null if no lines cross.
+	 */
+	public Candidate improveLessConflict() {
+		return improveLessConflict(null);
+	}
+
+	/**
+	 * Moves away from the line with the most conflicts, never to a neighbour whose tour hash is tabu.
+	 * The conflict graph is built once and then handed to the neighbour chosen, which only updates the lines that moved.
+	 * @param tabu The tour hashes that may not be reached, or null.
+	 * @return the neighbour chosen, or null if there is none.
+	 */
+	private Candidate improveLessConflict(TabuList tabu) {
+		if(conflicts == null)
+			conflicts = new IntersectionList(this);
+		intersectionCount = conflicts.getCount();
+		Candidate next = conflicts.improve(this, tabu);
+		if(next != null) {
+			next.conflicts = conflicts;		// the graph now follows the path of the neighbour
+			conflicts = null;
+		}
+		return next;
+	}
+
+
+	/**
+	 * Gets a random neighbour.
+	 * @param random The random generator the neighbour is drawn from.
+	 * @return a random neighbour.
+	 */
+	public Candidate improveRandom(Random random) {
+		if(neighbours == null)
+			neighbours = new NeighbourList(this);
+		return neighbours.get( random.nextInt(neighbours.size()) );
+	}
+
+	// --------------------------  Prints -------------------------------- //
+
+	/**
+	 * Prints every candidate in the neighbourList of the current candidate.
+	 */
+	public void printNeighbours() {
+
+		if(neighbours == null)
+			neighbours = new NeighbourList(this);
+		System.out.print("Original order: ");
+		this.printList();
+		System.out.println("Number of intersections: " + this.getIntersectionCount());
+		for(int k = 0; k < neighbours.size(); k++) {
+			neighbours.get(k).printList();
+		}
+	}
+
+	/**
+	 * Prints the points of this candidate using their names.
+	 */
+	public void printList() {
+		StringBuilder ans = new StringBuilder("[");
+		for (int i = 0; i < this.size(); i++) {
+			ans.append(points.get(tour[i]).printName());
+			if (i != this.size() - 1)
+				ans.append(", ");
+		}
+		ans.append("]");
+		System.out.println(ans);
+		System.out.println("Perimeter: " + this.getPerimeter() + " | Intersections: " + this.getIntersectionCount());
+	}
+
+
+}
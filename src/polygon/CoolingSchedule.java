@@ -0,0 +1,106 @@
+package polygon;
+
+/**
+ * How the temperature of a simulated annealing run changes after every proposed move.
+ *
+ * @author Felipe Valverde
+ * @author Murilo Rosa
+ */
+interface CoolingSchedule {
+
+	/**
+	 * Finds the temperature for the next move.
+	 * @param temperature The current temperature.
+	 * @param accepted Whether the last proposed move was accepted.
+	 * @param improved Whether the last move gave the best candidate so far.
+	 * @return the new temperature.
+	 */
+	double next(double temperature, boolean accepted, boolean improved);
+
+	/**
+	 * Multiplies the temperature by the same factor after every move.
+	 * @param factor The factor, a little below 1.
+	 * @return the schedule.
+	 */
+	static CoolingSchedule geometric(double factor){
+		return (temperature, accepted, improved) -> temperature * factor;
+	}
+
+	/**
+	 * Cools down when too many moves are accepted and heats up when too few are, counting over a window of moves.
+	 * @param target The fraction of moves that should be accepted.
+	 * @param window How many moves are counted before the temperature changes.
+	 * @return the schedule.
+	 */
+	static CoolingSchedule adaptive(double target, int window){
+		return new Adaptive(target, window);
+	}
+
+	/**
+	 * Cools down geometrically, and goes back to a fraction of the temperature it started from when the best candidate
+	 * has not changed for a while.
+	 * @param factor The factor the temperature is multiplied by after every move.
+	 * @param patience How many moves without a new best candidate before heating up.
+	 * @param reheat The fraction of the starting temperature it is heated back to.
+	 * @return the schedule.
+	 */
+	static CoolingSchedule reheating(double factor, int patience, double reheat){
+		return new Reheating(factor, patience, reheat);
+	}
+
+	/**
+	 * The schedule returned by adaptive().
+	 */
+	class Adaptive implements CoolingSchedule {
+		private final double target;
+		private final int window;
+		private int moves, accepts;
+
+		Adaptive(double target, int window){
+			this.target = target;
+			this.window = window;
+		}
+
+		@Override
+		public double next(double temperature, boolean accepted, boolean improved){
+			moves++;
+			if(accepted)
+				accepts++;
+			if(moves < window)
+				return temperature;
+			double rate = (double)accepts / moves;
+			moves = 0;
+			accepts = 0;
+			return rate > target ? temperature * 0.9 : temperature / 0.9;
+		}
+	}
+
+	/**
+	 * The schedule returned by reheating().
+	 */
+	class Reheating implements CoolingSchedule {
+		private final double factor;
+		private final int patience;
+		private final double reheat;
+		private double start = -1;
+		private int stale;
+
+		Reheating(double factor, int patience, double reheat){
+			this.factor = factor;
+			this.patience = patience;
+			this.reheat = reheat;
+		}
+
+		@Override
+		public double next(double temperature, boolean accepted, boolean improved){
+			if(start < 0)
+				start = temperature;
+			stale = improved ? 0 : stale + 1;
+			if(stale < patience)
+				return temperature * factor;
+			stale = 0;
+			return start * reheat;
+		}
+	}
+
+}
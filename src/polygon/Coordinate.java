@@ -1,9 +1,14 @@
+package polygon;
+
+/**
+ * A view of a single point, with the letter that represents it.
+ * Tours are stored as indices into a PointSet, so coordinates are only built when a point is printed.
+ */
 class Coordinate implements Comparable<Coordinate>{
 	private int x;
 	private int y;
 	private int c;
 	private String name;
-	private double distance; // Note: I don't think we even need this.
 
 	/**
 	 * Default constructor.
@@ -16,7 +21,6 @@ class Coordinate implements Comparable<Coordinate>{
 		this.y = y;
 		this.c = c;
 		this.name = makeName();
-		this.distance = Double.POSITIVE_INFINITY;
 	}
 
 	public Coordinate(int x, int y) {
@@ -24,7 +28,6 @@ class Coordinate implements Comparable<Coordinate>{
 		this.y = y;
 		this.c = 0;
 		this.name = null;
-		this.distance = Double.POSITIVE_INFINITY;
 	}
 
 	/**
@@ -36,24 +39,6 @@ class Coordinate implements Comparable<Coordinate>{
 		return new Coordinate(this.x, this.y, this.c);
 	}
 
-	/**
-	 * Performs simple coordinate subtraction.
-	 * @param that the coordinate which we want to subtract.
-	 * @return a new coordinate with the values obtained from the subtraction.
-	 */
-	public Coordinate subtract(Coordinate that) {
-		return new Coordinate(this.x - that.getX(), this.y - that.getY());
-	}
-
-	/**
-	 * Perfomrs a cross product, which is the determinant of a 2x2 matrix with the coordinates.
-	 * @param that the second coordinate.
-	 * @return an integer which is the determinant.
-	 */
-	public int crossProduct(Coordinate that) {
-		return ((this.x*that.y) - (that.x*this.y));
-	}
-
 	/**
 	 * Getter for X value.
 	 * @return x value.
@@ -106,8 +91,6 @@ class Coordinate implements Comparable<Coordinate>{
 
 	@Override
 	public int compareTo(Coordinate c) {
-		if(this.distance > c.distance) return +1;
-		if(this.distance < c.distance) return -1;
 		if(this.c > c.c) return +1;
 		if(this.c < c.c) return -1;
 		return 0;
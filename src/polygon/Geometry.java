@@ -0,0 +1,96 @@
+package polygon;
+
+/**
+ * The geometric predicates used to find intersections, working directly on integer coordinates.
+ * Nothing is allocated, and the results are exact for every int coordinate: cross products are computed in longs,
+ * and only when a difference does not fit in 31 bits are the two products compared with 128-bit arithmetic.
+ *
+ * @author Felipe Valverde
+ * @author Murilo Rosa
+ */
+final class Geometry {
+
+	private Geometry(){ }
+
+	/**
+	 * Checks to see, when we go from p1 to p2, and then to p3, if we have to turn left or right at p2.
+	 * @param x1 X coordinate of the starting, reference point.
+	 * @param y1 Y coordinate of the starting, reference point.
+	 * @param x2 X coordinate of the second point.
+	 * @param y2 Y coordinate of the second point.
+	 * @param x3 X coordinate of the point which we are analysing.
+	 * @param y3 Y coordinate of the point which we are analysing.
+	 * @return 1 if we turn left, -1 if we turn right, and 0 if the three points are collinear.
+	 */
+	static int orientation(int x1, int y1, int x2, int y2, int x3, int y3) {
+		long ux = (long)x2 - x1, uy = (long)y2 - y1;
+		long vx = (long)x3 - x1, vy = (long)y3 - y1;
+		return cross(ux, uy, vx, vy);
+	}
+
+	/**
+	 * Finds the sign of the cross product of two vectors, exactly for components below 2^62.
+	 * @return 1 if v is counterclockwise from u, -1 if it is clockwise, and 0 if they are parallel.
+	 */
+	static int cross(long ux, long uy, long vx, long vy) {
+		return compareProducts(ux, vy, uy, vx);
+	}
+
+	/**
+	 * Finds the sign of the dot product of two vectors, exactly for components below 2^62.
+	 * @return 1 if the angle between u and v is acute, -1 if it is obtuse, and 0 if they are perpendicular.
+	 */
+	static int dot(long ux, long uy, long vx, long vy) {
+		return compareProducts(ux, vx, -uy, vy);
+	}
+
+	/**
+	 * Compares a * b with c * d without overflowing.
+	 * @return the sign of a * b - c * d.
+	 */
+	private static int compareProducts(long a, long b, long c, long d) {
+		if((Math.abs(a) | Math.abs(b) | Math.abs(c) | Math.abs(d)) < (1L << 31))
+			return Long.signum(a * b - c * d);
+		long highA = Math.multiplyHigh(a, b), highB = Math.multiplyHigh(c, d);
+		if(highA != highB)
+			return highA > highB ? 1 : -1;
+		return Integer.signum(Long.compareUnsigned(a * b, c * d));
+	}
+
+	/**
+	 * Checks if p3 is inside the box that has the segment p1p2 as its diagonal.
+	 * When the three points are collinear, this means p3 is directly on top of the segment.
+	 * @return true if p3 is inside the box.
+	 */
+	static boolean isInBox(int x1, int y1, int x2, int y2, int x3, int y3) {
+		return (Math.min(x1, x2) <= x3 && x3 <= Math.max(x1, x2))
+			&& (Math.min(y1, y2) <= y3 && y3 <= Math.max(y1, y2));
+	}
+
+	/**
+	 * Checks if two segments intersect, either crossing each other or with a point of one touching the other.
+	 * @param ax X coordinate of the first point of the first segment.
+	 * @param ay Y coordinate of the first point of the first segment.
+	 * @param bx X coordinate of the second point of the first segment.
+	 * @param by Y coordinate of the second point of the first segment.
+	 * @param cx X coordinate of the first point of the second segment.
+	 * @param cy Y coordinate of the first point of the second segment.
+	 * @param dx X coordinate of the second point of the second segment.
+	 * @param dy Y coordinate of the second point of the second segment.
+	 * @return True if the segments cross.
+	 */
+	static boolean segmentsIntersect(int ax, int ay, int bx, int by, int cx, int cy, int dx, int dy) {
+		Stats.count(Stats.Counter.INTERSECTION_TESTS);
+		int d1 = orientation(ax, ay, bx, by, cx, cy);
+		int d2 = orientation(ax, ay, bx, by, dx, dy);
+		int d3 = orientation(cx, cy, dx, dy, ax, ay);
+		int d4 = orientation(cx, cy, dx, dy, bx, by);
+		if( d1 * d2 < 0 && d3 * d4 < 0 ) return true;
+		if( d1 == 0 && isInBox(ax, ay, bx, by, cx, cy) ) return true;
+		if( d2 == 0 && isInBox(ax, ay, bx, by, dx, dy) ) return true;
+		if( d3 == 0 && isInBox(cx, cy, dx, dy, ax, ay) ) return true;
+		if( d4 == 0 && isInBox(cx, cy, dx, dy, bx, by) ) return true;
+		return false;
+	}
+
+}
@@ -0,0 +1,98 @@
+package polygon;
+
+import java.util.Arrays;
+
+/**
+ * A growable list of primitive integers, used where an ArrayList&lt;Integer&gt; would box every element.
+ */
+class IntList {
+
+	private int[] data;
+	private int size;
+
+	/**
+	 * Default constructor for the class IntList.
+	 */
+	public IntList(){
+		data = new int[4];
+		size = 0;
+	}
+
+	/**
+	 * Appends a value to the end of the list.
+	 * @param value The value to be added.
+	 */
+	public void add(int value){
+		if(size == data.length)
+			data = Arrays.copyOf(data, size * 2);
+		data[size++] = value;
+	}
+
+	/**
+	 * Getter for a value of the list.
+	 * @param i The position of the value.
+	 * @return the value at position i.
+	 */
+	public int get(int i){
+		return data[i];
+	}
+
+	/**
+	 * Setter for a value of the list.
+	 * @param i The position of the value.
+	 * @param value The new value.
+	 */
+	public void set(int i, int value){
+		data[i] = value;
+	}
+
+	/**
+	 * Getter for the number of values.
+	 * @return the number of values in the list.
+	 */
+	public int size(){
+		return size;
+	}
+
+	/**
+	 * Removes one occurrence of a value, moving the last value into its place.
+	 * @param value The value to be removed.
+	 * @return true if the value was found.
+	 */
+	public boolean removeValue(int value){
+		for(int i = 0; i < size; i++)
+			if(data[i] == value) {
+				data[i] = data[--size];
+				return true;
+			}
+		return false;
+	}
+
+	/**
+	 * Removes every value, keeping the allocated space.
+	 */
+	public void clear(){
+		size = 0;
+	}
+
+	/**
+	 * Drops every value from a given position onwards.
+	 * @param size The number of values to keep.
+	 */
+	public void truncate(int size){
+		this.size = Math.min(this.size, size);
+	}
+
+	/**
+	 * Sorts the values and drops the repeated ones.
+	 */
+	public void sortUnique(){
+		Arrays.sort(data, 0, size);
+		int unique = 0;
+		for(int i = 0; i < size; i++)
+			if(unique == 0 || data[unique-1] != data[i])
+				data[unique++] = data[i];
+		size = unique;
+	}
+
+}
@@ -0,0 +1,48 @@
+package polygon;
+
+import java.util.function.IntBinaryOperator;
+
+/**
+ * Sorts primitive integers in an order given by a comparator, which Arrays.sort only allows for boxed values.
+ * Indices of points are sorted this way by the coordinates they point to, without an Integer for each of them.
+ */
+final class IntSort {
+
+	private static final int INSERTION_SORT = 16;
+
+	private IntSort(){ }
+
+	/**
+	 * Sorts a[from, to) with a stable merge sort.
+	 * @param a The array.
+	 * @param from The first position sorted.
+	 * @param to The position after the last one sorted.
+	 * @param order Compares two values, as a Comparator would.
+	 */
+	static void sort(int[] a, int from, int to, IntBinaryOperator order) {
+		if(to - from < 2)
+			return;
+		mergeSort(a, a.clone(), from, to, order);
+	}
+
+	private static void mergeSort(int[] a, int[] buffer, int from, int to, IntBinaryOperator order) {
+		if(to - from <= INSERTION_SORT) {
+			for(int i = from + 1; i < to; i++) {
+				int value = a[i], j = i;
+				for(; j > from && order.applyAsInt(a[j - 1], value) > 0; j--)
+					a[j] = a[j - 1];
+				a[j] = value;
+			}
+			return;
+		}
+		int mid = (from + to) >>> 1;
+		mergeSort(a, buffer, from, mid, order);
+		mergeSort(a, buffer, mid, to, order);
+		if(order.applyAsInt(a[mid - 1], a[mid]) <= 0)
+			return;		// already in order
+		System.arraycopy(a, from, buffer, from, to - from);
+		for(int i = from, j = mid, k = from; k < to; k++)
+			a[k] = j >= to || (i < mid && order.applyAsInt(buffer[i], buffer[j]) <= 0) ? buffer[i++] : buffer[j++];
+	}
+
+}
@@ -0,0 +1,306 @@
+package polygon;
+
+/**
+ * The conflict graph of a path: every line is joined to the lines it crosses, where line i goes from position i to the
+ * next one. The graph keeps its own copy of the path, so the candidate it was built from is never changed, and it is
+ * meant to live across the moves of a search: after a two-exchange only the (at most four) lines that moved are looked
+ * up again, in a SegmentGrid that is kept up to date.
+ * The lines are also kept in a heap ordered by how many lines they cross, so the most conflicted line is always at hand,
+ * and the less-conflicts strategy aims its moves at that line instead of rescanning the whole path.
+ *
+ * @author Felipe Valverde
+ * @author Murilo Rosa
+ */
+class IntersectionList {
+
+	private final Candidate path;
+	private final SegmentGrid grid;
+	private final SwapEvaluator evaluator;
+	private final IntList[] crossed;		// the lines each line crosses, or null if none ever did
+	private final int[] heap, place;		// the lines by degree, and where each one is in the heap
+	private int count;
+
+	private final int[] changed = new int[4];
+	private final IntList hits = new IntList(), scratch = new IntList();
+	private final IntList frontier = new IntList();		// places in the heap still to be visited, itself kept as a heap
+	private final int[] seen;
+	private int stamp;
+
+	/**
+	 * Default constructor for the class IntersectionList.
+	 * @param candidate The candidate whose crossings are listed, which is not changed.
+	 */
+	public IntersectionList(Candidate candidate){
+		this.path = new Candidate(candidate);
+		int n = path.size();
+		this.grid = SegmentGrid.of(path);
+		this.evaluator = new SwapEvaluator(path, grid);
+		this.crossed = new IntList[n];
+		this.heap = new int[n];
+		this.place = new int[n];
+		this.seen = new int[n];
+		for(int i = 0; i < n; i++) {
+			heap[i] = i;
+			place[i] = i;
+		}
+		for(long pair : grid.crossings())
+			link((int)(pair >>> 32), (int)pair);
+	}
+
+	// ------------------------- Getters ---------------------------------- //
+
+	/**
+	 * Getter for the number of intersections.
+	 * @return how many pairs of lines cross.
+	 */
+	public int getCount(){
+		return count;
+	}
+
+	/**
+	 * Getter for the degree of a line.
+	 * @param line The line, which goes from position line to the next one.
+	 * @return how many lines it crosses.
+	 */
+	public int getDegree(int line){
+		return crossed[line] == null ? 0 : crossed[line].size();
+	}
+
+	/**
+	 * Finds the line that crosses the most lines, the one with the smallest number in case of a tie.
+	 * @return the line, or -1 if no lines cross.
+	 */
+	public int getMostConflicted(){
+		return heap.length == 0 || getDegree(heap[0]) == 0 ? -1 : heap[0];
+	}
+
+	// ------------------------- Moves ------------------------------------ //
+
+	/**
+	 * Moves to the neighbour chosen by the less-conflicts strategy. The moves are the same as in NeighbourList, one for
+	 * each pair of crossing lines, but they are tried line by line from the most conflicted one down, and the search
+	 * stops after the first line that has a move lowering the number of intersections; only when there is none are all
+	 * the pairs tried, and the best of them taken.
+	 * The move that undoes the one that built the candidate is left out. If every move is left out or tabu, the points at
+	 * both ends of the most conflicted line are also tried against the ends of the lines it crosses.
+	 * @param candidate The candidate to be improved, which must be the path of this graph.
+	 * @param tabu The tour hashes that may not be reached, or null.
+	 * @return the neighbour, whose path is now the one of this graph, or null if there are no moves allowed.
+	 */
+	public Candidate improve(Candidate candidate, TabuList tabu){
+		int top = getMostConflicted();
+		if(top == -1)
+			return null;
+		long[] best = {Long.MAX_VALUE, -1};		// (change, move), the move packed as (first << 32 | second)
+		// the lines are visited from the most conflicted down, until one of them has a move that lowers the intersections
+		frontier.clear();
+		frontier.add(0);
+		stamp++;
+		while(frontier.size() > 0 && best[0] >= 0) {
+			int at = pollFrontier();
+			int s = heap[at];
+			if(getDegree(s) == 0)
+				break;
+			seen[s] = stamp;
+			for(int i = 0; i < crossed[s].size(); i++)
+				if(seen[crossed[s].get(i)] != stamp)		// that pair was tried from the other line
+					tryMove(s, crossed[s].get(i), candidate, tabu, best);
+			for(int child = 2 * at + 1; child <= 2 * at + 2 && child < heap.length; child++)
+				offerFrontier(child);
+		}
+		int n = path.size();
+		for(int i = 0; best[1] == -1 && i < crossed[top].size(); i++) {		// stuck: every endpoint of the lines is tried
+			int t = crossed[top].get(i);
+			for(int p : new int[] {top, (top + 1) % n})
+				for(int q : new int[] {t, (t + 1) % n})
+					if(p != q)
+						tryPositions(Math.min(p, q), Math.max(p, q), candidate, tabu, false, best);
+		}
+		if(best[1] == -1)
+			return null;
+
+		int p = (int)(best[1] >>> 32), q = (int)best[1];
+		long perimeter = candidate.isPerimeterKnown() ? candidate.getPerimeter() + evaluator.perimeterDelta(p, q) : -1;
+		long tourHash = candidate.getTourHash() + candidate.swapHashDelta(p, q);
+		swap(p, q);
+		Candidate next = new Candidate(candidate, path.tour.clone());
+		next.movedFirst = p;
+		next.movedSecond = q;
+		next.setIntersectionCount(count);
+		if(perimeter != -1)
+			next.setPerimeter(perimeter);
+		next.setTourHash(tourHash);
+		return next;
+	}
+
+	/**
+	 * Evaluates the move of a pair of crossing lines, keeping it if it is the best one so far.
+	 */
+	private void tryMove(int s, int t, Candidate candidate, TabuList tabu, long[] best){
+		tryPositions(Math.min(s, t) + 1, Math.max(s, t), candidate, tabu, true, best);
+	}
+
+	/**
+	 * Evaluates the exchange of the points at two positions, keeping it if it is the best one so far.
+	 */
+	private void tryPositions(int p, int q, Candidate candidate, TabuList tabu, boolean skipBack, long[] best){
+		if(skipBack && isBack(candidate, p, q))
+			return;
+		if(tabu != null && tabu.contains(candidate.getTourHash() + candidate.swapHashDelta(p, q)))
+			return;
+		long move = ((long)p << 32) | q;
+		long change = evaluator.crossingDelta(p, q);
+		Stats.count(Stats.Counter.NEIGHBOURS);
+		if(change < best[0] || (change == best[0] && move < best[1])) {
+			best[0] = change;
+			best[1] = move;
+		}
+	}
+
+	private static boolean isBack(Candidate candidate, int p, int q){
+		return (p == candidate.movedFirst && q == candidate.movedSecond)
+			|| (p == candidate.movedSecond && q == candidate.movedFirst);
+	}
+
+	/**
+	 * Exchanges the points at two positions of the path, and updates the crossings of the lines that touch them.
+	 * @param p The position of the first point.
+	 * @param q The position of the second point.
+	 */
+	public void swap(int p, int q){
+		if(p == q)
+			return;
+		int n = path.size();
+		int lines = 0;
+		for(int line : new int[] {(p - 1 + n) % n, p, (q - 1 + n) % n, q})
+			if(!isChanged(line, lines))
+				changed[lines++] = line;
+
+		for(int k = 0; k < lines; k++) {
+			IntList list = crossed[changed[k]];
+			while(list != null && list.size() > 0)
+				unlink(changed[k], list.get(list.size() - 1));
+		}
+		int swap = path.tour[p];
+		path.tour[p] = path.tour[q];
+		path.tour[q] = swap;
+		for(int k = 0; k < lines; k++)
+			grid.add(changed[k], path.get(changed[k]), path.get((changed[k] + 1) % n));
+		for(int k = 0; k < lines; k++) {
+			int s = changed[k];
+			grid.query(grid.getA(s), grid.getB(s), hits, scratch);
+			for(int h = 0; h < hits.size(); h++)
+				if(!isChanged(hits.get(h), k))		// a pair of changed lines was linked by the first of them
+					link(s, hits.get(h));
+		}
+	}
+
+	private boolean isChanged(int line, int lines){
+		for(int k = 0; k < lines; k++)
+			if(changed[k] == line)
+				return true;
+		return false;
+	}
+
+	// ------------------------- Graph ------------------------------------ //
+
+	private void link(int s, int t){
+		count++;
+		addTo(s, t);		// one line at a time, so the heap is whole again before the other one moves
+		addTo(t, s);
+	}
+
+	private void unlink(int s, int t){
+		count--;
+		crossed[s].removeValue(t);
+		siftDown(place[s]);
+		crossed[t].removeValue(s);
+		siftDown(place[t]);
+	}
+
+	private void addTo(int s, int t){
+		if(crossed[s] == null)
+			crossed[s] = new IntList();
+		crossed[s].add(t);
+		siftUp(place[s]);
+	}
+
+	// ------------------------- Heap ------------------------------------- //
+
+	/**
+	 * Checks if a line goes above another in the heap: more crossings first, then the smaller line.
+	 */
+	private boolean above(int s, int t){
+		int ds = getDegree(s), dt = getDegree(t);
+		return ds > dt || (ds == dt && s < t);
+	}
+
+	private void siftUp(int i){
+		while(i > 0) {
+			int up = (i - 1) >>> 1;
+			if(!above(heap[i], heap[up]))
+				return;
+			exchange(i, up);
+			i = up;
+		}
+	}
+
+	private void siftDown(int i){
+		while(true) {
+			int left = 2 * i + 1, right = left + 1, top = i;
+			if(left < heap.length && above(heap[left], heap[top]))
+				top = left;
+			if(right < heap.length && above(heap[right], heap[top]))
+				top = right;
+			if(top == i)
+				return;
+			exchange(i, top);
+			i = top;
+		}
+	}
+
+	/**
+	 * Adds a place of the heap to the frontier, whose first place always holds the line with the most crossings.
+	 */
+	private void offerFrontier(int at){
+		int i = frontier.size();
+		frontier.add(at);
+		while(i > 0 && above(heap[frontier.get(i)], heap[frontier.get((i - 1) >>> 1)])) {
+			int up = (i - 1) >>> 1, swap = frontier.get(i);
+			frontier.set(i, frontier.get(up));
+			frontier.set(up, swap);
+			i = up;
+		}
+	}
+
+	/**
+	 * Takes the first place out of the frontier.
+	 */
+	private int pollFrontier(){
+		int first = frontier.get(0), last = frontier.size() - 1;
+		frontier.set(0, frontier.get(last));
+		frontier.truncate(last);
+		for(int i = 0; ; ) {
+			int left = 2 * i + 1, right = left + 1, top = i;
+			if(left < last && above(heap[frontier.get(left)], heap[frontier.get(top)]))
+				top = left;
+			if(right < last && above(heap[frontier.get(right)], heap[frontier.get(top)]))
+				top = right;
+			if(top == i)
+				return first;
+			int swap = frontier.get(i);
+			frontier.set(i, frontier.get(top));
+			frontier.set(top, swap);
+			i = top;
+		}
+	}
+
+	private void exchange(int i, int j){
+		int swap = heap[i];
+		heap[i] = heap[j];
+		heap[j] = swap;
+		place[heap[i]] = i;
+		place[heap[j]] = j;
+	}
+
+}
@@ -0,0 +1,285 @@
+package polygon;
+
+/**
+ * A 2-d tree over the points of a PointSet that supports removing points.
+ * The tree is kept implicitly in one array: the node of the range [lo, hi) is the point at (lo + hi) / 2, which splits
+ * the range by X at even depths and by Y at odd depths. Every node counts the points still present below it,
+ * so searches skip the parts of the tree that were emptied, and a nearest-neighbour query costs about O(log n).
+ *
+ * @author Felipe Valverde
+ * @author Murilo Rosa
+ */
+class KdTree {
+
+	private final PointSet points;
+	private final int[] ids;
+	private final int[] where;
+	private final int[] count;
+	private final boolean[] removed;
+
+	private int bestPoint;
+	private long bestDistance;
+	private int[] heapPoint;
+	private long[] heapDistance;
+	private int heapSize;
+
+	/**
+	 * Default constructor for the class KdTree, holding every point of the set.
+	 * @param points The points to be stored.
+	 */
+	public KdTree(PointSet points){
+		this.points = points;
+		int n = points.size();
+		this.ids = new int[n];
+		this.where = new int[n];
+		this.count = new int[n];
+		this.removed = new boolean[n];
+		for(int i = 0; i < n; i++)
+			ids[i] = i;
+		build(0, n, 0);
+		for(int i = 0; i < n; i++)
+			where[ids[i]] = i;
+	}
+
+	// ------------------------- Updates ---------------------------------- //
+
+	/**
+	 * Takes a point out of the tree.
+	 * @param point The index of the point.
+	 */
+	public void remove(int point){
+		int target = where[point];
+		if(removed[target])
+			return;
+		removed[target] = true;
+		recount(target, -1);
+	}
+
+	/**
+	 * Puts a removed point back in the tree.
+	 * @param point The index of the point.
+	 */
+	public void restore(int point){
+		int target = where[point];
+		if(!removed[target])
+			return;
+		removed[target] = false;
+		recount(target, 1);
+	}
+
+	/**
+	 * Changes the count of every node on the way from the root down to a node.
+	 */
+	private void recount(int target, int change){
+		int lo = 0, hi = ids.length;
+		while(lo < hi) {
+			int mid = (lo + hi) >>> 1;
+			count[mid] += change;
+			if(mid == target)
+				break;
+			if(target < mid)
+				hi = mid;
+			else
+				lo = mid + 1;
+		}
+	}
+
+	/**
+	 * Getter for the number of points left.
+	 * @return how many points were not removed.
+	 */
+	public int size(){
+		return ids.length == 0 ? 0 : count[ids.length >>> 1];
+	}
+
+	// ------------------------- Queries ---------------------------------- //
+
+	/**
+	 * Finds the point left in the tree that is nearest to a location.
+	 * Ties are broken by the smallest index.
+	 * @param x X coordinate of the location.
+	 * @param y Y coordinate of the location.
+	 * @return the index of the nearest point, or -1 if the tree is empty.
+	 */
+	public int nearest(int x, int y){
+		bestPoint = -1;
+		bestDistance = Long.MAX_VALUE;
+		nearest(0, ids.length, 0, x, y);
+		return bestPoint;
+	}
+
+	private void nearest(int lo, int hi, int depth, int x, int y){
+		if(lo >= hi)
+			return;
+		int mid = (lo + hi) >>> 1;
+		if(count[mid] == 0)
+			return;
+		int point = ids[mid];
+		if(!removed[mid]) {
+			long distance = distance(point, x, y);
+			if(distance < bestDistance || (distance == bestDistance && point < bestPoint)) {
+				bestDistance = distance;
+				bestPoint = point;
+			}
+		}
+		long gap = depth % 2 == 0 ? (long)x - points.xs[point] : (long)y - points.ys[point];
+		if(gap < 0) {
+			nearest(lo, mid, depth + 1, x, y);
+			if(gap * gap <= bestDistance)
+				nearest(mid + 1, hi, depth + 1, x, y);
+		}
+		else {
+			nearest(mid + 1, hi, depth + 1, x, y);
+			if(gap * gap <= bestDistance)
+				nearest(lo, mid, depth + 1, x, y);
+		}
+	}
+
+	/**
+	 * Finds the k points left in the tree that are nearest to a location.
+	 * Ties are broken by the smallest index.
+	 * @param x X coordinate of the location.
+	 * @param y Y coordinate of the location.
+	 * @param k How many points to find.
+	 * @param found The array where the points are written, from the nearest to the farthest.
+	 * @return how many points were found, which is less than k only if fewer points are left.
+	 */
+	public int kNearest(int x, int y, int k, int[] found){
+		if(heapPoint == null || heapPoint.length < k) {
+			heapPoint = new int[k];
+			heapDistance = new long[k];
+		}
+		heapSize = 0;
+		if(k > 0)
+			kNearest(0, ids.length, 0, x, y, k);
+		int count = heapSize;
+		while(heapSize > 0) {		// taking the farthest out each time leaves the nearest at the front
+			found[heapSize - 1] = heapPoint[0];
+			heapSize--;
+			heapPoint[0] = heapPoint[heapSize];
+			heapDistance[0] = heapDistance[heapSize];
+			siftDown(0);
+		}
+		return count;
+	}
+
+	private void kNearest(int lo, int hi, int depth, int x, int y, int k){
+		if(lo >= hi)
+			return;
+		int mid = (lo + hi) >>> 1;
+		if(count[mid] == 0)
+			return;
+		int point = ids[mid];
+		if(!removed[mid]) {
+			long distance = distance(point, x, y);
+			if(heapSize < k) {
+				heapPoint[heapSize] = point;
+				heapDistance[heapSize] = distance;
+				siftUp(heapSize++);
+			}
+			else if(isFarther(heapDistance[0], heapPoint[0], distance, point)) {
+				heapPoint[0] = point;
+				heapDistance[0] = distance;
+				siftDown(0);
+			}
+		}
+		long gap = depth % 2 == 0 ? (long)x - points.xs[point] : (long)y - points.ys[point];
+		int first = gap < 0 ? lo : mid + 1, firstEnd = gap < 0 ? mid : hi;
+		int second = gap < 0 ? mid + 1 : lo, secondEnd = gap < 0 ? hi : mid;
+		kNearest(first, firstEnd, depth + 1, x, y, k);
+		if(heapSize < k || gap * gap <= heapDistance[0])
+			kNearest(second, secondEnd, depth + 1, x, y, k);
+	}
+
+	/**
+	 * Orders the found points by distance and then index; the heap keeps the farthest one at the top.
+	 */
+	private static boolean isFarther(long distanceA, int pointA, long distanceB, int pointB){
+		return distanceA > distanceB || (distanceA == distanceB && pointA > pointB);
+	}
+
+	private void siftUp(int i){
+		while(i > 0) {
+			int up = (i - 1) / 2;
+			if(!isFarther(heapDistance[i], heapPoint[i], heapDistance[up], heapPoint[up]))
+				return;
+			swap(i, up);
+			i = up;
+		}
+	}
+
+	private void siftDown(int i){
+		while(true) {
+			int largest = i;
+			for(int child = 2 * i + 1; child <= 2 * i + 2 && child < heapSize; child++)
+				if(isFarther(heapDistance[child], heapPoint[child], heapDistance[largest], heapPoint[largest]))
+					largest = child;
+			if(largest == i)
+				return;
+			swap(i, largest);
+			i = largest;
+		}
+	}
+
+	private void swap(int i, int j){
+		int point = heapPoint[i];
+		heapPoint[i] = heapPoint[j];
+		heapPoint[j] = point;
+		long distance = heapDistance[i];
+		heapDistance[i] = heapDistance[j];
+		heapDistance[j] = distance;
+	}
+
+	private long distance(int point, int x, int y){
+		long dx = (long)points.xs[point] - x, dy = (long)points.ys[point] - y;
+		return dx * dx + dy * dy;
+	}
+
+	// ------------------------- Building --------------------------------- //
+
+	/**
+	 * Arranges the range [lo, hi) so that its middle point splits it, and then does the same to both halves.
+	 */
+	private void build(int lo, int hi, int depth){
+		if(lo >= hi)
+			return;
+		int mid = (lo + hi) >>> 1;
+		select(lo, hi - 1, mid, depth % 2 == 0);
+		count[mid] = hi - lo;
+		build(lo, mid, depth + 1);
+		build(mid + 1, hi, depth + 1);
+	}
+
+	/**
+	 * Moves into position k the point that would be there if [lo, hi] was sorted, with smaller points before it
+	 * and larger points after it.
+	 */
+	private void select(int lo, int hi, int k, boolean byX){
+		while(lo < hi) {
+			int pivot = key(ids[(lo + hi) >>> 1], byX);
+			int i = lo, j = hi;
+			while(i <= j) {
+				while(key(ids[i], byX) < pivot) i++;
+				while(key(ids[j], byX) > pivot) j--;
+				if(i <= j) {
+					int swap = ids[i];
+					ids[i] = ids[j];
+					ids[j] = swap;
+					i++;
+					j--;
+				}
+			}
+			if(k <= j)
+				hi = j;
+			else if(k >= i)
+				lo = i;
+			else
+				return;
+		}
+	}
+
+	private int key(int point, boolean byX){
+		return byX ? points.xs[point] : points.ys[point];
+	}
+
+}
@@ -0,0 +1,565 @@
+package polygon;
+
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A local search over three kinds of moves, all made of reversals of the path:
+ * <ul>
+ * <li>2-opt: the lines ab and cd are replaced by ac and bd, reversing the stretch from b to c;</li>
+ * <li>Or-opt: a stretch of one to three points is taken out and put back between two other neighbouring points;</li>
+ * <li>3-opt, restricted to the moves that swap two neighbouring stretches without reversing either.</li>
+ * </ul>
+ * Every move adds a line from a point to one of its k nearest points, so a point only tries O(k) moves (O(k^2) for
+ * 3-opt), and points whose moves all failed are left alone (their don't-look bit is set) until a move changes a line
+ * next to them, so a whole pass costs close to linear time. The path is kept in a BlockTour, so each reversal costs
+ * O(sqrt(n)), and its lines in a SegmentGrid, so a move is checked for crossings by looking only at the lines it changes.
+ * The search first takes out crossing lines, and once the polygon is simple the same moves can shorten its perimeter
+ * (with squared euclidian distances, as everywhere else) without ever making it cross itself again.
+ *
+ * @author Felipe Valverde
+ * @author Murilo Rosa
+ */
+class LocalSearch {
+
+	public static final int DEFAULT_NEIGHBOURS = 8;
+	private static final int MAX_SEGMENT = 3;		// the longest stretch moved by Or-opt
+	private static final boolean[] DIRECTIONS = {true, false};
+
+	private final Candidate candidate;
+	private final PointSet points;
+	private final int n;
+	private final BlockTour tour;
+	private final SegmentGrid grid;
+	private final int[] incident;		// the ids, in the grid, of the two lines at each point
+	private final int k;
+	private final int[] near;		// the k nearest points of each point, from the nearest, or -1
+	private final boolean[] nearKnown;		// the nearest points are only looked for when a move needs them
+	private KdTree tree;
+	private final int[] found;
+	private long perimeter;
+	private int crossings;
+	private int moves;
+
+	// the move being evaluated: the lines taken out, by id, and the ones put in, by their endpoints
+	private final int[] out = new int[3], inA = new int[3], inB = new int[3];
+	private int outs, ins;
+	private long lengthChange;
+	private int crossingChange;
+
+	private final IntList pending = new IntList(), targets = new IntList();
+	private final IntList hits = new IntList(), scratch = new IntList();
+	private final boolean[] queued;
+	private long budget = Long.MAX_VALUE;
+	private boolean timedOut, shorteningLast;		// whether the last search ran out of time, and which one it was
+
+	/**
+	 * Default constructor for the class LocalSearch, with the default number of nearest points.
+	 * @param candidate The candidate to be improved, which is not changed.
+	 */
+	public LocalSearch(Candidate candidate){
+		this(candidate, DEFAULT_NEIGHBOURS);
+	}
+
+	/**
+	 * Constructor for the class LocalSearch.
+	 * @param candidate The candidate to be improved, which is not changed.
+	 * @param k How many of its nearest points each point may be joined to by a move.
+	 */
+	public LocalSearch(Candidate candidate, int k){
+		this.candidate = candidate;
+		this.points = candidate.points;
+		this.n = candidate.size();
+		this.tour = new BlockTour(candidate.tour);
+		this.grid = SegmentGrid.of(candidate);
+		this.incident = new int[2 * points.size()];
+		Arrays.fill(incident, -1);
+		for(int i = 0; i < n; i++) {
+			attach(i, candidate.get(i));
+			attach(i, candidate.get((i + 1) % n));
+		}
+		this.crossings = grid.crossings().length;
+		this.perimeter = candidate.getPerimeter();
+		this.queued = new boolean[points.size()];
+
+		this.k = Math.max(0, Math.min(k, n - 1));
+		this.near = new int[points.size() * this.k];
+		this.nearKnown = new boolean[points.size()];
+		this.found = new int[this.k + 1];
+	}
+
+	// ------------------------- Setters ---------------------------------- //
+
+	/**
+	 * Setter for the wall-clock budget of every search.
+	 * @param budget The time, in milliseconds, after which a search stops.
+	 */
+	public void setBudget(long budget){
+		this.budget = budget;
+	}
+
+	// ------------------------- Getters ---------------------------------- //
+
+	/**
+	 * Getter for the number of moves made.
+	 * @return how many moves were made so far.
+	 */
+	public int getMoves(){
+		return moves;
+	}
+
+	/**
+	 * Getter for the number of intersections.
+	 * @return how many pairs of lines of the current path cross.
+	 */
+	public int getCrossings(){
+		return crossings;
+	}
+
+	/**
+	 * Checks if the last search was stopped by its budget, in which case the next call of the same search, or of run,
+	 * goes on from the points it had still to look at.
+	 * @return true if the last search ran out of time.
+	 */
+	public boolean isTimedOut(){
+		return timedOut;
+	}
+
+	// ------------------------- Searching -------------------------------- //
+
+	/**
+	 * Removes intersections and then, if the polygon became simple, shortens it.
+	 * @param maxMoves The limit of moves of each phase.
+	 * @return a child of the candidate with the improved path.
+	 */
+	public Candidate run(int maxMoves){
+		if(!timedOut || !shorteningLast) {
+			search(false, maxMoves);
+			if(timedOut)
+				return toCandidate();
+		}
+		if(crossings == 0)
+			search(true, maxMoves);
+		return toCandidate();
+	}
+
+	/**
+	 * Makes moves that take out crossing lines and shorten the polygon, starting from the points next to a crossing,
+	 * until no lines cross, no such move is left, the limit of moves is reached or the budget runs out. Lines that only touch or overlap
+	 * along the same direction may be left, since undoing them does not always make the polygon shorter.
+	 * @param maxMoves The limit of moves.
+	 * @return a child of the candidate with the improved path.
+	 */
+	public Candidate untangle(int maxMoves){
+		search(false, maxMoves);
+		return toCandidate();
+	}
+
+	/**
+	 * Makes moves that shorten a simple polygon and keep it simple, until no such move is left, the limit of moves is
+	 * reached or the budget runs out. Nothing is done if lines still cross.
+	 * @param maxMoves The limit of moves.
+	 * @return a child of the candidate with the improved path.
+	 */
+	public Candidate shorten(int maxMoves){
+		if(crossings == 0)
+			search(true, maxMoves);
+		return toCandidate();
+	}
+
+	/**
+	 * Tries the moves of every point whose don't-look bit is off, and turns the bits back off around every move made.
+	 */
+	private void search(boolean shortening, int maxMoves){
+		if(!timedOut || shortening != shorteningLast) {
+			int[] order = tour.toArray();
+			for(int i = n - 1; i >= 0; i--)
+				push(order[i]);
+		}
+		timedOut = false;
+		shorteningLast = shortening;
+		long deadline = budget == Long.MAX_VALUE ? Long.MAX_VALUE : System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(budget);
+		int limit = moves + maxMoves;
+		for(int polls = 1; pending.size() > 0 && moves < limit && (shortening || crossings > 0); polls++) {
+			if((polls & 255) == 0 && System.nanoTime() > deadline) {
+				timedOut = true;
+				break;
+			}
+			int a = pending.get(pending.size() - 1);
+			pending.truncate(pending.size() - 1);
+			queued[a] = false;
+			if(!shortening && !touchesCrossing(a))
+				continue;
+			for(boolean forward : DIRECTIONS)
+				if(twoOpt(a, forward, shortening) || orOpt(a, forward, shortening) || threeOpt(a, forward, shortening))
+					break;
+		}
+	}
+
+	private Candidate toCandidate(){
+		Candidate result = new Candidate(candidate, tour.toArray());
+		result.setIntersectionCount(crossings);
+		result.setPerimeter(perimeter);
+		return result;
+	}
+
+	// ------------------------- Moves ------------------------------------ //
+
+	/**
+	 * Tries the 2-opt moves that replace the line from a to the next point b. When shortening, the new line ac must be
+	 * shorter than ab, and the nearest points come first, so the search stops at the first one that is not. When
+	 * untangling, the lines that cross ab are tried first, since undoing a crossing is the most natural move of all.
+	 */
+	private boolean twoOpt(int a, boolean forward, boolean shortening){
+		if(n < 4)
+			return false;
+		int b = step(a, forward);
+		long ab = length(a, b);
+		findNear(a);
+		targets.clear();
+		if(!shortening) {
+			grid.query(a, b, hits, scratch);
+			for(int h = 0; h < hits.size(); h++) {
+				int u = grid.getA(hits.get(h)), v = grid.getB(hits.get(h));
+				targets.add(step(u, forward) == v ? u : v);
+			}
+		}
+		for(int s = 0; s < k && near[a * k + s] != -1; s++)
+			targets.add(near[a * k + s]);
+		for(int t = 0; t < targets.size(); t++) {
+			int c = targets.get(t);
+			if(shortening && length(a, c) >= ab)
+				break;
+			int d = step(c, forward);
+			if(c == b || d == a)
+				continue;
+			begin();
+			takeOut(a, b);
+			takeOut(c, d);
+			putIn(a, c);
+			putIn(b, d);
+			if(accept(shortening)) {
+				reverse(a, b, c, d);
+				commit();
+				return true;
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * Tries the Or-opt moves that take out the stretch of one to three points starting at a, between p and n2, and put
+	 * it back between a near point c of a and a neighbour d of c, joining c to a.
+	 */
+	private boolean orOpt(int a, boolean forward, boolean shortening){
+		if(n < 8)
+			return false;
+		int p = step(a, !forward);
+		long pa = length(p, a);
+		findNear(a);
+		int e = a;
+		for(int len = 1; len <= MAX_SEGMENT; len++, e = step(e, forward)) {
+			int n2 = step(e, forward);
+			for(int s = 0; s < k && near[a * k + s] != -1; s++) {
+				int c = near[a * k + s];
+				if(shortening && length(c, a) >= pa)
+					break;
+				if(outside(a, c, forward, len))
+					for(boolean after : DIRECTIONS) {
+						int d = step(c, after == forward);
+						if(!outside(a, d, forward, len))
+							continue;
+						begin();
+						takeOut(p, a);
+						takeOut(e, n2);
+						takeOut(c, d);
+						putIn(p, n2);
+						putIn(c, a);
+						putIn(e, d);
+						if(accept(shortening)) {
+							if(after)
+								relocate(p, a, e, n2, c, d, true);
+							else		// the same move, seen from the other way round
+								relocate(n2, e, a, p, c, d, false);
+							commit();
+							return true;
+						}
+					}
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * Tries the 3-opt moves that turn a b..c d..e f into a d..e b..c f, where d is near a and e is near b.
+	 */
+	private boolean threeOpt(int a, boolean forward, boolean shortening){
+		if(n < 8)
+			return false;
+		int b = step(a, forward);
+		long ab = length(a, b);
+		findNear(a);
+		findNear(b);
+		for(int s = 0; s < k && near[a * k + s] != -1; s++) {
+			int d = near[a * k + s];
+			long ad = length(a, d);
+			if(shortening && ad >= ab)
+				break;
+			int od = offset(a, d, forward);
+			if(od < 2)
+				continue;
+			int c = step(d, !forward);
+			long gain = ab + length(c, d) - ad;		// what is left for the last line to stay shorter
+			for(int r = 0; r < k && near[b * k + r] != -1; r++) {
+				int e = near[b * k + r];
+				if(shortening && length(e, b) >= gain)
+					break;
+				int oe = offset(a, e, forward);
+				if(oe < od || oe > n - 2)
+					continue;
+				int f = step(e, forward);
+				begin();
+				takeOut(a, b);
+				takeOut(c, d);
+				takeOut(e, f);
+				putIn(a, d);
+				putIn(e, b);
+				putIn(c, f);
+				if(accept(shortening)) {
+					reverse(a, b, e, f);
+					reverse(a, e, d, c);
+					reverse(e, c, b, f);
+					commit();
+					return true;
+				}
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * Moves the stretch a..e, between p and n2, to between c and d, where d follows c in the same direction as a follows
+	 * p, with two reversals (which leave the stretch reversed, joining c to e) or three (which join c to a).
+	 */
+	private void relocate(int p, int a, int e, int n2, int c, int d, boolean keepOrder){
+		reverse(p, a, c, d);
+		reverse(p, c, n2, e);
+		if(keepOrder)
+			reverse(c, e, a, d);
+	}
+
+	/**
+	 * Replaces the lines ab and cd, where b follows a and d follows c in the same direction, by ac and bd.
+	 */
+	private void reverse(int a, int b, int c, int d){
+		if(b == c || a == d)
+			return;		// only one point, or all but one, would be reversed, which changes no line
+		if(tour.next(a) != b) {		// the same move, seen from the other way round
+			int swap = a; a = b; b = swap;
+			swap = c; c = d; d = swap;
+		}
+		int pb = tour.position(b), pc = tour.position(c);
+		if(pb <= pc)
+			tour.reverse(pb, pc);
+		else
+			tour.reverse(tour.position(d), tour.position(a));
+	}
+
+	// ------------------------- Evaluation ------------------------------- //
+
+	private void begin(){
+		outs = 0;
+		ins = 0;
+	}
+
+	private void takeOut(int a, int b){
+		out[outs++] = lineBetween(a, b);
+	}
+
+	private void putIn(int a, int b){
+		inA[ins] = a;
+		inB[ins++] = b;
+	}
+
+	/**
+	 * Checks if the move described by the lines taken out and put in is worth making. When shortening it must make the
+	 * polygon shorter without adding any crossing. When untangling it must take out a line that crosses another one and
+	 * make the polygon shorter in true euclidian length, like the moves of Untangler: that length goes down with every
+	 * move, so the search can never go around in circles, and a proper crossing can always be undone that way.
+	 */
+	private boolean accept(boolean shortening){
+		Stats.count(Stats.Counter.NEIGHBOURS);
+		lengthChange = 0;
+		for(int i = 0; i < ins; i++)
+			lengthChange += length(inA[i], inB[i]);
+		for(int i = 0; i < outs; i++)
+			lengthChange -= length(grid.getA(out[i]), grid.getB(out[i]));
+		if(shortening) {
+			crossingChange = 0;
+			return lengthChange < 0 && !newCrossing();
+		}
+		double before = 0, after = 0;
+		for(int i = 0; i < outs; i++)
+			before += Math.sqrt(length(grid.getA(out[i]), grid.getB(out[i])));
+		for(int i = 0; i < ins; i++)
+			after += Math.sqrt(length(inA[i], inB[i]));
+		if(after >= before * (1 - 1e-12))
+			return false;
+		int crossed = crossingsOf(null, null, outs);
+		if(crossed == 0)
+			return false;
+		crossingChange = crossingsOf(inA, inB, ins) - crossed;
+		return true;
+	}
+
+	/**
+	 * Counts the crossings of some lines with each other and with the lines of the path that are not taken out.
+	 * @param as The first endpoints of the lines, or null for the lines taken out.
+	 * @param bs The second endpoints of the lines, or null for the lines taken out.
+	 */
+	private int crossingsOf(int[] as, int[] bs, int count){
+		int found = 0;
+		for(int i = 0; i < count; i++) {
+			int a = as == null ? grid.getA(out[i]) : as[i], b = bs == null ? grid.getB(out[i]) : bs[i];
+			grid.query(a, b, hits, scratch);
+			for(int h = 0; h < hits.size(); h++)
+				if(!isTakenOut(hits.get(h)))
+					found++;
+			for(int j = i + 1; j < count; j++)
+				if(intersect(a, b, as == null ? grid.getA(out[j]) : as[j], bs == null ? grid.getB(out[j]) : bs[j]))
+					found++;
+		}
+		return found;
+	}
+
+	/**
+	 * Checks if any line put in crosses another one, or a line of the path that is not taken out.
+	 */
+	private boolean newCrossing(){
+		for(int i = 0; i < ins; i++) {
+			grid.query(inA[i], inB[i], hits, scratch);
+			for(int h = 0; h < hits.size(); h++)
+				if(!isTakenOut(hits.get(h)))
+					return true;
+			for(int j = i + 1; j < ins; j++)
+				if(intersect(inA[i], inB[i], inA[j], inB[j]))
+					return true;
+		}
+		return false;
+	}
+
+	/**
+	 * Stores the lines put in under the ids of the lines taken out, and turns off the don't-look bits of their ends.
+	 */
+	private void commit(){
+		for(int i = 0; i < outs; i++) {
+			detach(out[i], grid.getA(out[i]));
+			detach(out[i], grid.getB(out[i]));
+		}
+		for(int i = 0; i < ins; i++) {
+			grid.add(out[i], inA[i], inB[i]);
+			attach(out[i], inA[i]);
+			attach(out[i], inB[i]);
+			push(inA[i]);
+			push(inB[i]);
+		}
+		crossings += crossingChange;
+		perimeter += lengthChange;
+		moves++;
+		Stats.count(Stats.Counter.MOVES_ACCEPTED);
+	}
+
+	// ------------------------- Helpers ---------------------------------- //
+
+	/**
+	 * Lists the k nearest points of a point, the first time they are needed.
+	 */
+	private void findNear(int a){
+		if(nearKnown[a])
+			return;
+		if(tree == null)
+			tree = new KdTree(points);
+		int count = tree.kNearest(points.xs[a], points.ys[a], k + 1, found);
+		int s = 0;
+		for(int j = 0; j < count && s < k; j++)
+			if(found[j] != a)
+				near[a * k + s++] = found[j];
+		for(; s < k; s++)
+			near[a * k + s] = -1;
+		nearKnown[a] = true;
+	}
+
+	private boolean touchesCrossing(int a){
+		for(int i = 0; i < 2; i++) {
+			int line = incident[2 * a + i];
+			grid.query(grid.getA(line), grid.getB(line), hits, scratch);
+			if(hits.size() > 0)
+				return true;
+		}
+		return false;
+	}
+
+	private int lineBetween(int a, int b){
+		int line = incident[2 * a];
+		return grid.getA(line) == b || grid.getB(line) == b ? line : incident[2 * a + 1];
+	}
+
+	private void attach(int line, int point){
+		incident[incident[2 * point] == -1 ? 2 * point : 2 * point + 1] = line;
+	}
+
+	private void detach(int line, int point){
+		if(incident[2 * point] == line)
+			incident[2 * point] = -1;
+		else
+			incident[2 * point + 1] = -1;
+	}
+
+	private boolean isTakenOut(int line){
+		for(int i = 0; i < outs; i++)
+			if(out[i] == line)
+				return true;
+		return false;
+	}
+
+	private void push(int point){
+		if(!queued[point]) {
+			pending.add(point);
+			queued[point] = true;
+		}
+	}
+
+	private int step(int point, boolean forward){
+		return forward ? tour.next(point) : tour.prev(point);
+	}
+
+	/**
+	 * Finds how many steps it takes to go from one point to another in a given direction.
+	 */
+	private int offset(int from, int to, boolean forward){
+		int steps = tour.position(to) - tour.position(from);
+		if(!forward)
+			steps = -steps;
+		return steps < 0 ? steps + n : steps;
+	}
+
+	/**
+	 * Checks that a point is not in the stretch of len points starting at a, nor right before or after it.
+	 */
+	private boolean outside(int a, int point, boolean forward, int len){
+		int steps = offset(a, point, forward);
+		return steps > len && steps < n - 1;
+	}
+
+	private boolean intersect(int a, int b, int c, int d){
+		if(a == c || a == d || b == c || b == d)
+			return false;
+		int[] xs = points.xs, ys = points.ys;
+		return Geometry.segmentsIntersect(xs[a], ys[a], xs[b], ys[b], xs[c], ys[c], xs[d], ys[d]);
+	}
+
+	private long length(int a, int b){
+		return Candidate.euclidianDistance(points.xs[a], points.ys[a], points.xs[b], points.ys[b]);
+	}
+
+}
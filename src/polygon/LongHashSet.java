@@ -0,0 +1,120 @@
+package polygon;
+
+import java.util.Arrays;
+
+/**
+ * A set of primitive longs with open addressing, used where a HashSet&lt;Long&gt; would box every element.
+ */
+class LongHashSet {
+
+	private static final long EMPTY = Long.MIN_VALUE;
+
+	private long[] table;
+	private int size;
+	private boolean hasEmpty;		// EMPTY marks free slots, so it is kept apart
+
+	/**
+	 * Default constructor for the class LongHashSet.
+	 * @param expected The number of values the set should hold without growing.
+	 */
+	public LongHashSet(int expected){
+		int capacity = Integer.highestOneBit(Math.max(4, expected) * 2 - 1) << 1;
+		table = new long[capacity];
+		Arrays.fill(table, EMPTY);
+		size = 0;
+	}
+
+	/**
+	 * Adds a value to the set.
+	 * @param value The value to be added.
+	 * @return true if the value was not in the set yet.
+	 */
+	public boolean add(long value){
+		if(value == EMPTY) {
+			if(hasEmpty)
+				return false;
+			hasEmpty = true;
+			return true;
+		}
+		int mask = table.length - 1;
+		for(int i = hash(value) & mask; ; i = (i + 1) & mask) {
+			if(table[i] == value)
+				return false;
+			if(table[i] == EMPTY) {
+				table[i] = value;
+				if(++size * 2 > table.length)
+					grow();
+				return true;
+			}
+		}
+	}
+
+	/**
+	 * Checks if a value is in the set.
+	 * @param value The value.
+	 * @return true if the value was added before.
+	 */
+	public boolean contains(long value){
+		if(value == EMPTY)
+			return hasEmpty;
+		int mask = table.length - 1;
+		for(int i = hash(value) & mask; ; i = (i + 1) & mask) {
+			if(table[i] == value)
+				return true;
+			if(table[i] == EMPTY)
+				return false;
+		}
+	}
+
+	/**
+	 * Removes a value from the set, moving back the values that were probed past it so no tombstones are left.
+	 * @param value The value to be removed.
+	 * @return true if the value was in the set.
+	 */
+	public boolean remove(long value){
+		if(value == EMPTY) {
+			boolean had = hasEmpty;
+			hasEmpty = false;
+			return had;
+		}
+		int mask = table.length - 1;
+		int i = hash(value) & mask;
+		while(table[i] != value) {
+			if(table[i] == EMPTY)
+				return false;
+			i = (i + 1) & mask;
+		}
+		for(int j = (i + 1) & mask; table[j] != EMPTY; j = (j + 1) & mask) {
+			int home = hash(table[j]) & mask;
+			boolean reachable = i <= j ? i < home && home <= j : i < home || home <= j;
+			if(reachable)
+				continue;		// still found from its home slot
+			table[i] = table[j];
+			i = j;
+		}
+		table[i] = EMPTY;
+		size--;
+		return true;
+	}
+
+	private void grow(){
+		long[] old = table;
+		table = new long[old.length * 2];
+		Arrays.fill(table, EMPTY);
+		int mask = table.length - 1;
+		for(long value : old) {
+			if(value == EMPTY)
+				continue;
+			int i = hash(value) & mask;
+			while(table[i] != EMPTY)
+				i = (i + 1) & mask;
+			table[i] = value;
+		}
+	}
+
+	private static int hash(long value){
+		value *= 0x9E3779B97F4A7C15L;
+		return (int)(value ^ (value >>> 32));
+	}
+
+}
@@ -0,0 +1,69 @@
+package polygon;
+
+import java.util.Arrays;
+
+/**
+ * A growable list of primitive longs, used where an ArrayList&lt;Long&gt; would box every element.
+ */
+class LongList {
+
+	private long[] data;
+	private int size;
+
+	/**
+	 * Default constructor for the class LongList.
+	 */
+	public LongList(){
+		data = new long[4];
+		size = 0;
+	}
+
+	/**
+	 * Appends a value to the end of the list.
+	 * @param value The value to be added.
+	 */
+	public void add(long value){
+		if(size == data.length)
+			data = Arrays.copyOf(data, size * 2);
+		data[size++] = value;
+	}
+
+	/**
+	 * Appends every value of another list, keeping their order.
+	 * @param other The list whose values are added.
+	 * @return this list.
+	 */
+	public LongList addAll(LongList other){
+		if(size + other.size > data.length)
+			data = Arrays.copyOf(data, Math.max(size + other.size, size * 2));
+		System.arraycopy(other.data, 0, data, size, other.size);
+		size += other.size;
+		return this;
+	}
+
+	/**
+	 * Getter for a value of the list.
+	 * @param i The position of the value.
+	 * @return the value at position i.
+	 */
+	public long get(int i){
+		return data[i];
+	}
+
+	/**
+	 * Getter for the number of values.
+	 * @return the number of values in the list.
+	 */
+	public int size(){
+		return size;
+	}
+
+	/**
+	 * Copies the values to an array.
+	 * @return an array with the values, in order.
+	 */
+	public long[] toArray(){
+		return Arrays.copyOf(data, size);
+	}
+
+}
@@ -0,0 +1,335 @@
+package polygon;
+
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.PrintWriter;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Scanner;
+import java.util.Random;
+
+/**
+ * The program asks the user for inputs to choose a way of generating, correcting and returning a simple polygon (Hamilton cycle with no intersections)
+ * from a collection of randomly generated points in a 2D space.
+ * 
+ * @author Felipe Valverde
+ * @author Murilo Rosa
+ */
+public class Main {
+	static Scanner stdin;
+	static PointSet points;
+	static Random random = new Random();		// create new random generator
+
+	/**
+	 * Generic exiting message and return.
+	 */
+	public static void leave() {
+		System.out.println("Exiting...");
+		return;
+	}
+	
+	/**
+	 * Generates text to the user and waits for a response, to determine the methods which will be used to achieve the final goal.
+	 * @param args A String array containing command line arguments: empty for the menus, or
+	 * "--batch [--threads T] [--budget MS] [--seed S] [files...]" to solve every instance in the files (or in the standard
+	 * input) with a BatchRunner, or "--validate [files...]" to check whether the polygons in the files (or in the
+	 * standard input) are simple with a PolygonValidator.
+	 * In batch mode, "--portfolio SLICE" solves the instances one at a time by racing the pipelines of a Portfolio on T
+	 * threads, in slices of about SLICE milliseconds, and writes the statistics of every pipeline to the standard error.
+	 * With -Dpolygon.stats=true, the counters and phase timers of the run are written to the standard error as one line of
+	 * JSON at the end.
+	 */
+	public static void main(String[] args) {
+		try {
+			if(args.length > 0 && args[0].equals("--batch"))
+				batch(args);
+			else if(args.length > 0 && args[0].equals("--validate"))
+				validate(args);
+			else
+				menus();
+		} finally {
+			if(Stats.ENABLED)
+				System.err.println(Stats.summary());
+		}
+	}
+
+	/**
+	 * Runs the menus, reading the answers from the standard input.
+	 */
+	private static void menus() {
+		stdin = new Scanner(System.in);
+
+		System.out.println("Please enter the number of points to be generated: ");
+
+		int N = stdin.nextInt();
+		if(N==0) {
+			System.out.println("Exiting...");
+			return;
+		}
+
+		int[] xs = new int[N], ys = new int[N];
+		points = new PointSet(xs, ys);
+
+		System.out.println("Please enter the number corresponding to the function you desire.");
+		System.out.println("0 - Exit the program.");
+		System.out.println("1 - Enter Coordinates");
+		System.out.println("2 - Randomly Generate");
+		System.out.println("3 - Randomly Generate (clustered)");
+		System.out.println("4 - Randomly Generate (gaussian)");
+		int P = stdin.nextInt();
+
+		switch(P) {
+			case 0:
+				leave();
+				break;
+			case 1:
+				LongHashSet read = new LongHashSet(N);
+				for(int i = 0; i < N; i++) {
+					int x = stdin.nextInt();
+					int y = stdin.nextInt();
+
+					if(!read.add(((long)x << 32) | (y & 0xFFFFFFFFL))) {
+						System.out.println("Duplicate coordinate.");
+						leave();
+					}
+					xs[i] = x;
+					ys[i] = y;
+				}
+				break;
+			case 2:
+			case 3:
+			case 4:
+				System.out.println("Please enter a boundary:");
+
+				int M = stdin.nextInt();
+				if (N > PointGenerator.capacity(M)) {
+					System.out.println("Boundary too small.");
+					leave();
+					return;
+				}
+				long start = Stats.start();
+				points = new PointGenerator(M, (byte)(P - 1), random.nextLong()).generate(N);
+				Stats.stop(Stats.Phase.GENERATION, start, N);
+				break;
+			default:
+				System.out.println("Invalid input.");
+				leave();
+				break;
+	
+		}
+
+		for (int i = 0; i < points.size(); i++) {
+			Coordinate c = points.get(i);
+			System.out.println(c.printName() + " " + c.toString());
+		}
+
+		int choice = -1;
+
+
+		System.out.println("Please enter the number corresponding to the function you desire.");
+		System.out.println("1 - Random permutation");
+		System.out.println("2 - Nearest Neighbour");
+		System.out.println("3 - Ant Colony Optimization");
+		System.out.println("4 - Multi-start (parallel)");
+		System.out.println("5 - Star-shaped polygon (angular sort)");
+		System.out.println("6 - X-monotone polygon");
+		System.out.println("7 - Space partitioning polygon");
+		System.out.println("0 - Exit the program.");
+
+		choice = stdin.nextInt();
+		Candidate result = null;
+		long start = Stats.start();
+
+		switch(choice){
+			case 0:
+				leave();
+				break;	
+			case 1:
+			case 2:
+			case 5:
+			case 6:
+			case 7:
+				result = new Candidate(points, (byte)choice, random);
+				break;
+			case 3:
+				System.out.println("Please enter the number of ants: ");
+				int maxAnts = stdin.nextInt();
+				AntColony colony = new AntColony(points, random.nextLong());		// one ant per core at a time
+				result = colony.run(maxAnts, () -> false, ant -> {
+					System.out.print("Current solution: ");
+					ant.printList();
+				});
+				break;
+			case 4:
+				System.out.println("Please enter the number of starts: ");
+				MultiStart engine = new MultiStart(points, random.nextLong());
+				engine.setStarts(stdin.nextInt());
+				System.out.println("Please enter a time limit (in milliseconds): ");
+				engine.setBudget(stdin.nextLong());
+				try {
+					result = engine.run();
+				} catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+					return;
+				}
+				if(result == null) {
+					System.out.println("Invalid input.");
+					return;
+				}
+				System.out.print("Best start: ");
+				result.printList();
+				break;
+			default:
+				System.out.println("Invalid input.");
+				return;
+		}
+
+		Stats.stop(Stats.Phase.CONSTRUCTION, start, points.size());
+
+		if(!result.checkIntegrity()) {
+			System.out.println("Invalid input.");
+			return;	
+		}
+
+		if(!result.isSimple()) {
+
+			System.out.println("Please enter the number corresponding to the function you desire.");
+			System.out.println("0 - Exit the program.");
+			System.out.println("1 - Best-improvement First");
+			System.out.println("2 - First-improvement");
+			System.out.println("3 - Less-conflicts");
+			System.out.println("4 - Anyone");
+			System.out.println("5 - Simulated Annealing (amount of intersections)");
+			System.out.println("6 - 2-opt untangling");
+			System.out.println("7 - Local search (2-opt, Or-opt and 3-opt), which also shortens the polygon once it is simple");
+
+			choice = stdin.nextInt();
+			start = Stats.start();
+
+			while(!result.isSimple()) {
+
+				switch (choice) {
+					case 0:
+						leave();
+						break;
+					case 1:
+						result = result.improveBestFirst();
+						Stats.count(Stats.Counter.MOVES_ACCEPTED);
+						break;
+					case 2:
+						result = result.improveFirst();
+						Stats.count(Stats.Counter.MOVES_ACCEPTED);
+						break;
+					case 3:
+						result = result.improveLessConflict();
+						Stats.count(Stats.Counter.MOVES_ACCEPTED);
+						break;
+					case 4:
+						result = result.improveRandom(random);
+						Stats.count(Stats.Counter.MOVES_ACCEPTED);
+						break;
+					case 5:
+						System.out.println("Please enter a limit number of annealing iterations: ");
+						int maxIterations = stdin.nextInt();
+						result = new Annealer(result, random.nextLong()).run(maxIterations);
+						choice = 3;		// change to find result by less conflicting
+						break;
+					case 6:
+						result = new Untangler(result).run(100 * result.size());
+						choice = 3;		// if any touching lines are left, find result by less conflicting
+						break;
+					case 7:
+						result = new LocalSearch(result).run(100 * result.size());
+						choice = 3;
+						break;
+					default:
+						System.out.println("Invalid input.");
+						leave();
+				}
+
+				System.out.print("Current solution: ");
+				result.printList();
+			}
+			Stats.stop(Stats.Phase.REPAIR, start, points.size());
+		}
+
+		System.out.print("Found the simple polygon: ");
+		result.printList();
+		System.out.println(" ---------------------------- ");
+	}
+
+	/**
+	 * Runs the batch mode, writing one line per instance to the standard output.
+	 * @param args The command line arguments, starting with "--batch".
+	 */
+	private static void batch(String[] args) {
+		int threads = Runtime.getRuntime().availableProcessors();
+		long budget = Long.MAX_VALUE, seed = 0;
+		Portfolio portfolio = null;
+		int i = 1;
+		for(; i + 1 < args.length && args[i].startsWith("--"); i += 2) {
+			switch(args[i]) {
+				case "--threads": threads = Integer.parseInt(args[i+1]); break;
+				case "--budget": budget = Long.parseLong(args[i+1]); break;
+				case "--seed": seed = Long.parseLong(args[i+1]); break;
+				case "--portfolio":
+					portfolio = new Portfolio();
+					portfolio.setSlice(Long.parseLong(args[i+1]));
+					break;
+				default:
+					System.out.println("Invalid input.");
+					return;
+			}
+		}
+
+		BatchRunner runner = new BatchRunner(portfolio != null ? 1 : threads);		// a portfolio has the threads to itself
+		runner.setBudget(budget);
+		runner.setSeed(seed);
+		if(portfolio != null) {
+			portfolio.setThreads(threads);
+			runner.setPortfolio(portfolio);
+		}
+		PrintWriter out = new PrintWriter(System.out);
+		try {
+			List<Reader> sources = new ArrayList<>();		// one stream per file, so a broken file spoils no other
+			if(i == args.length)
+				sources.add(new InputStreamReader(System.in));
+			for(int f = i; f < args.length; f++)
+				sources.add(new InputStreamReader(new FileInputStream(args[f])));
+			try {
+				runner.run(sources, out);
+			} finally {
+				for(Reader source : sources)
+					source.close();
+			}
+			if(portfolio != null)
+				System.err.print(portfolio.report());
+		} catch(IOException e) {
+			System.out.println(e.getMessage());
+		} catch(InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+	}
+
+	/**
+	 * Runs the validator, writing one line per polygon file to the standard output.
+	 * @param args The command line arguments, starting with "--validate".
+	 */
+	private static void validate(String[] args) {
+		PolygonValidator validator = new PolygonValidator();
+		PrintWriter out = new PrintWriter(System.out);
+		try {
+			if(args.length == 1)
+				validator.validate("-", System.in, out);
+			for(int f = 1; f < args.length; f++)
+				try(InputStream in = new FileInputStream(args[f])) {
+					validator.validate(args[f], in, out);
+				}
+		} catch(IOException e) {
+			System.out.println(e.getMessage());
+		}
+	}
+}
@@ -0,0 +1,206 @@
+package polygon;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Runs many independent starts at once, each building its own candidate from a different seed (by nearest neighbour,
+ * random permutation or a short ant colony run) and improving it with one of the strategies, and keeps the best
+ * candidate any of them reached.
+ * As soon as one start finds a simple polygon the others are told to stop, and when the time budget runs out the best
+ * candidate found so far is returned even if it still has intersections.
+ *
+ * @author Felipe Valverde
+ * @author Murilo Rosa
+ */
+class MultiStart {
+
+	private static final byte[] GENERATORS = { 2, 1, 3 };
+	private static final int ANT_ITERATIONS = 10;
+	private static final byte[] STRATEGIES = { 3, 1, 2 };
+
+	private final PointSet points;
+	private final long seed;
+	private int starts;
+	private int threads;
+	private long budget;
+	private int maxSteps;
+	private int tabuTenure;
+
+	private final AtomicBoolean solved = new AtomicBoolean();
+	private Candidate best;
+	private int bestStart;
+
+	/**
+	 * Default constructor for the class MultiStart.
+	 * @param points The points of the polygon.
+	 * @param seed The seed from which every start draws its own.
+	 */
+	public MultiStart(PointSet points, long seed){
+		this.points = points;
+		this.seed = seed;
+		this.threads = Runtime.getRuntime().availableProcessors();
+		this.starts = 2 * threads;
+		this.budget = 10000;
+		this.maxSteps = 10 * points.size() + 100;
+		this.tabuTenure = TabuList.DEFAULT_TENURE;
+	}
+
+	// ------------------------- Setters ---------------------------------- //
+
+	/**
+	 * Setter for the number of starts.
+	 * @param starts How many starts are run; start i uses generator i % 3 and strategy (i / 3) % 3.
+	 */
+	public void setStarts(int starts){
+		this.starts = starts;
+	}
+
+	/**
+	 * Setter for the number of threads running the starts.
+	 * @param threads The number of threads.
+	 */
+	public void setThreads(int threads){
+		this.threads = threads;
+	}
+
+	/**
+	 * Setter for the wall-clock budget.
+	 * @param budget The time, in milliseconds, after which the best candidate so far is returned.
+	 */
+	public void setBudget(long budget){
+		this.budget = budget;
+	}
+
+	/**
+	 * Setter for how long a start may go on before giving up, since some strategies can walk in circles.
+	 * @param maxSteps The largest number of moves made by one start.
+	 */
+	public void setMaxSteps(int maxSteps){
+		this.maxSteps = maxSteps;
+	}
+
+	/**
+	 * Setter for how many of its last candidates a start may not go back to.
+	 * @param tabuTenure The length of the tabu list of every start.
+	 */
+	public void setTabuTenure(int tabuTenure){
+		this.tabuTenure = tabuTenure;
+	}
+
+	// ------------------------- Running ---------------------------------- //
+
+	/**
+	 * Runs every start until one finds a simple polygon, all of them give up, or the budget runs out.
+	 * @return the candidate with the fewest intersections (and then the smallest perimeter) found by any start.
+	 * @throws InterruptedException if the calling thread is interrupted while waiting.
+	 */
+	public Candidate run() throws InterruptedException {
+		solved.set(false);
+		best = null;
+		bestStart = -1;
+		long deadline = budget == Long.MAX_VALUE ? Long.MAX_VALUE : System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(budget);
+
+		ExecutorService pool = Executors.newFixedThreadPool(Math.max(1, Math.min(threads, starts)));
+		List<Future<?>> workers = new ArrayList<>();
+		try {
+			for(int i = 0; i < starts; i++) {
+				final int start = i;
+				final long startSeed = seed + 0x9E3779B97F4A7C15L * (i + 1);
+				workers.add(pool.submit(() -> runStart(start, startSeed, deadline)));
+			}
+			pool.shutdown();
+			pool.awaitTermination(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS);
+		} finally {
+			solved.set(true);		// stops the starts still running when the budget is over
+			for(Future<?> worker : workers)
+				worker.cancel(true);
+			pool.shutdownNow();
+		}
+
+		synchronized(this) {
+			return best;
+		}
+	}
+
+	/**
+	 * Getter for which start found the returned candidate.
+	 * @return the number of the start, or -1 if nothing was run.
+	 */
+	public synchronized int getBestStart(){
+		return bestStart;
+	}
+
+	/**
+	 * Builds and improves one candidate, offering it to the shared best after every move.
+	 */
+	private void runStart(int start, long startSeed, long deadline){
+		byte generator = GENERATORS[start % GENERATORS.length];
+		byte strategy = STRATEGIES[(start / GENERATORS.length) % STRATEGIES.length];
+
+		if(stopped(deadline))
+			return;		// a start still queued when the race was over does not build anything
+		Random random = new Random(startSeed);		// the candidate and the random moves both come from the seed of the start
+		Candidate current = build(generator, random);
+		if(solved.get())
+			return;		// another start already solved the instance, so this candidate is dropped
+		current.setPool(null);		// the starts already keep every thread busy
+		offer(current, start);
+		TabuList tabu = new TabuList(tabuTenure);
+		tabu.add(current.getTourHash());
+		for(int step = 0; step < maxSteps && current.getIntersectionCount() != 0; step++) {
+			if(stopped(deadline))
+				return;
+			Candidate next = current.improve(strategy, tabu, random);
+			if(next == null)
+				return;		// every way out is tabu
+			current = next;
+			Stats.count(Stats.Counter.MOVES_ACCEPTED);
+			tabu.add(current.getTourHash());
+			offer(current, start);
+		}
+	}
+
+	/**
+	 * Checks if a start should stop: a simple polygon was found, the start was cancelled, or the deadline passed.
+	 */
+	private boolean stopped(long deadline){
+		return solved.get() || Thread.currentThread().isInterrupted() || System.nanoTime() > deadline;
+	}
+
+	/**
+	 * Builds the first candidate of a start. The ant colony walks its ants in the thread of the start, since the starts
+	 * already keep every thread busy.
+	 */
+	private Candidate build(byte generator, Random random){
+		if(generator != 3)
+			return new Candidate(points, generator, random);
+		AntColony colony = new AntColony(points, random.nextLong());
+		colony.setPool(null);
+		for(int i = 0; i < ANT_ITERATIONS && !solved.get(); i++)
+			colony.iterate();
+		return colony.getBest();
+	}
+
+	/**
+	 * Keeps a candidate if it is better than the best one so far, and stops every start if it is a simple polygon.
+	 */
+	private synchronized void offer(Candidate candidate, int start){
+		if(solved.get() && best != null && best.getIntersectionCount() == 0)
+			return;
+		if(best == null || candidate.getIntersectionCount() < best.getIntersectionCount()
+				|| (candidate.getIntersectionCount() == best.getIntersectionCount() && candidate.getPerimeter() < best.getPerimeter())) {
+			best = candidate;
+			bestStart = start;
+		}
+		if(candidate.getIntersectionCount() == 0)
+			solved.set(true);
+	}
+
+}
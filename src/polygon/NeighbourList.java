@@ -0,0 +1,317 @@
+package polygon;
+
+import java.util.Arrays;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * The two-exchange moves of a candidate, one for each pair of crossing lines.
+ * A move is only described by the pair of positions it swaps, and its effects are evaluated when first asked for,
+ * so the neighbouring candidates are only built when a move is chosen.
+ * Finding the crossings and searching the moves are split among the threads of the candidate's pool, with ties always
+ * going to the move with the smallest number, so the result does not depend on how many threads there are.
+ */
+class NeighbourList {
+
+	private static final int MOVES_PER_TASK = 64;
+
+	private final Candidate candidate;
+	private final ForkJoinPool pool;
+	private final long[] crossings;
+	private final SwapEvaluator evaluator;
+	private final int[] crossingDeltas;
+	private final int back;
+
+	/**
+	 * Default constructor for NeighbourList class.
+	 * @param candidate the candidate for which the neighbourlist is generated.
+	 */
+	public NeighbourList(Candidate candidate){
+		this.candidate = candidate;
+		this.pool = candidate.pool;
+
+		SegmentGrid grid = SegmentGrid.of(candidate);
+		crossings = grid.crossings(pool);
+		candidate.setIntersectionCount(crossings.length);
+		evaluator = new SwapEvaluator(candidate, grid);
+		crossingDeltas = new int[crossings.length];
+		Arrays.fill(crossingDeltas, Integer.MIN_VALUE);
+
+		int found = -1;
+		for(int k = 0; k < crossings.length && found == -1; k++)
+			if(isBack(first(k), second(k)))
+				found = k;
+		back = crossings.length > 1 ? found : -1;		// if going back is the only way out, keep it
+		Stats.count(Stats.Counter.NEIGHBOURS, crossings.length);
+	}
+
+	// ------------------------- Moves ------------------------------------ //
+
+	/**
+	 * Getter for the number of moves.
+	 * @return the number of neighbours of the candidate.
+	 */
+	public int size() {
+		return back == -1 ? crossings.length : crossings.length - 1;
+	}
+
+	/**
+	 * Getter for the first position swapped by a move.
+	 * @param k The number of the move.
+	 * @return the position of the second point of the first crossing line.
+	 */
+	public int getFirst(int k) {
+		return first(index(k));
+	}
+
+	/**
+	 * Getter for the second position swapped by a move.
+	 * @param k The number of the move.
+	 * @return the position of the first point of the second crossing line.
+	 */
+	public int getSecond(int k) {
+		return second(index(k));
+	}
+
+	/**
+	 * Finds how many intersections a move adds, computing it only the first time it is asked for.
+	 * @param k The number of the move.
+	 * @return the number of intersections of the neighbour minus the ones of the candidate.
+	 */
+	public int getCrossingDelta(int k) {
+		return crossingDelta(k, evaluator);
+	}
+
+	private int crossingDelta(int k, SwapEvaluator evaluator) {
+		int i = index(k);
+		if(crossingDeltas[i] == Integer.MIN_VALUE)
+			crossingDeltas[i] = evaluator.crossingDelta(getFirst(k), getSecond(k));
+		return crossingDeltas[i];
+	}
+
+	/**
+	 * Finds how much a move changes the perimeter.
+	 * @param k The number of the move.
+	 * @return the perimeter of the neighbour minus the one of the candidate.
+	 */
+	public long getPerimeterDelta(int k) {
+		return evaluator.perimeterDelta(getFirst(k), getSecond(k));
+	}
+
+	/**
+	 * Builds the neighbour obtained by a move.
+	 * @param k The number of the move.
+	 * @return the new candidate.
+	 */
+	public Candidate get(int k) {
+		Candidate next = twoExchange(candidate, getFirst(k), getSecond(k));
+		next.setIntersectionCount(candidate.getIntersectionCount() + getCrossingDelta(k));
+		return next;
+	}
+
+	/**
+	 * Skips the move that would go back to the parent.
+	 */
+	private int index(int k) {
+		return back != -1 && k >= back ? k + 1 : k;
+	}
+
+	private int first(int i) {
+		return (int)(crossings[i] >>> 32) + 1;
+	}
+
+	private int second(int i) {
+		return (int)crossings[i];
+	}
+
+	// ------------------------- Searching -------------------------------- //
+
+	/**
+	 * Finds the neighbour with the smallest perimeter.
+	 * @return the candidate with the smallest perimeter.
+	 */
+	public Candidate getSmallestPerimeter() {
+		return getSmallestPerimeter(null);
+	}
+
+	/**
+	 * Finds the neighbour with the smallest perimeter among the ones that are not tabu.
+	 * @param tabu The tour hashes that may not be reached, or null.
+	 * @return the candidate with the smallest perimeter, or null if there is none.
+	 */
+	public Candidate getSmallestPerimeter(TabuList tabu) {
+		int answer = best(true, tabu);
+		return answer == -1 ? null : this.get(answer);
+	}
+
+	/**
+	 * Finds the neighbour with the fewest conflicts.
+	 * @return the candidate with the fewest intersections.
+	 */
+	public Candidate getLessIntersections() {
+		return getLessIntersections(null);
+	}
+
+	/**
+	 * Finds the neighbour with the fewest conflicts among the ones that are not tabu.
+	 * @param tabu The tour hashes that may not be reached, or null.
+	 * @return the candidate with the fewest intersections, or null if there is none.
+	 */
+	public Candidate getLessIntersections(TabuList tabu) {
+		int answer = best(false, tabu);
+		return answer == -1 ? null : this.get(answer);
+	}
+
+	/**
+	 * Finds the first neighbour that is not tabu.
+	 * @param tabu The tour hashes that may not be reached, or null.
+	 * @return the candidate, or null if there is none.
+	 */
+	public Candidate getFirstAllowed(TabuList tabu) {
+		for(int k = 0; k < size(); k++)
+			if(!isTabu(k, tabu))
+				return this.get(k);
+		return null;
+	}
+
+	/**
+	 * Picks a random neighbour, or the next one that is not tabu if the picked one is.
+	 * @param random The random generator.
+	 * @param tabu The tour hashes that may not be reached, or null.
+	 * @return the candidate, or null if there is none.
+	 */
+	public Candidate getRandom(Random random, TabuList tabu) {
+		if(size() == 0)
+			return null;
+		int start = random.nextInt(size());
+		for(int i = 0; i < size(); i++) {
+			int k = (start + i) % size();
+			if(!isTabu(k, tabu))
+				return this.get(k);
+		}
+		return null;
+	}
+
+	/**
+	 * Checks if a move reaches a tabu tour, in constant time from the tour hash of the candidate.
+	 */
+	private boolean isTabu(int k, TabuList tabu) {
+		return tabu != null && tabu.contains(candidate.getTourHash() + candidate.swapHashDelta(getFirst(k), getSecond(k)));
+	}
+
+	/**
+	 * Finds the move with the smallest change in perimeter or in intersections, the first one in case of a tie.
+	 * @param byPerimeter true to compare the perimeters, false to compare the intersections.
+	 * @param tabu The tour hashes that may not be reached, or null.
+	 * @return the number of the move, or -1 if there are none.
+	 */
+	private int best(boolean byPerimeter, TabuList tabu) {
+		if(size() == 0)
+			return -1;
+		candidate.getTourHash();		// computed once here rather than raced for by the tasks
+		Scan scan = new Scan(0, size(), byPerimeter, tabu);
+		Move best = pool == null || size() <= MOVES_PER_TASK ? scan.compute() : pool.invoke(scan);
+		return best == null ? -1 : best.k;
+	}
+
+	/**
+	 * A move and how much it changes the perimeter or the intersections. The change of perimeter is a long, so it is
+	 * kept apart from the number of the move rather than packed with it.
+	 */
+	private static final class Move {
+		final long change;
+		final int k;
+
+		Move(long change, int k) {
+			this.change = change;
+			this.k = k;
+		}
+
+		/**
+		 * Picks the smaller change, or the smaller move in case of a tie.
+		 */
+		static Move min(Move a, Move b) {
+			if(a == null || b == null)
+				return a == null ? b : a;
+			return a.change < b.change || (a.change == b.change && a.k < b.k) ? a : b;
+		}
+	}
+
+	/**
+	 * Evaluates a range of moves, halving it until it is small enough for one task.
+	 * Only the deltas are computed, so no neighbour is built until the winning move is known.
+	 */
+	@SuppressWarnings("serial")		// a task is never serialized
+	private class Scan extends RecursiveTask<Move> {
+		private final int from, to;
+		private final boolean byPerimeter;
+		private final TabuList tabu;
+
+		Scan(int from, int to, boolean byPerimeter, TabuList tabu) {
+			this.from = from;
+			this.to = to;
+			this.byPerimeter = byPerimeter;
+			this.tabu = tabu;
+		}
+
+		@Override
+		protected Move compute() {
+			if(to - from > MOVES_PER_TASK && inForkJoinPool()) {
+				int mid = (from + to) >>> 1;
+				Scan left = new Scan(from, mid, byPerimeter, tabu);
+				left.fork();
+				Move right = new Scan(mid, to, byPerimeter, tabu).compute();
+				return Move.min(left.join(), right);
+			}
+			SwapEvaluator local = evaluator.copy();
+			long best = Long.MAX_VALUE;
+			int move = -1;
+			for(int k = from; k < to; k++) {
+				if(isTabu(k, tabu))
+					continue;
+				long change = byPerimeter ? local.perimeterDelta(getFirst(k), getSecond(k)) : crossingDelta(k, local);
+				if(change < best) {
+					best = change;
+					move = k;
+				}
+			}
+			return move == -1 ? null : new Move(best, move);
+		}
+	}
+
+	/**
+	 * Checks if swapping two positions gives back the parent of the candidate, which is known from the move that
+	 * created the candidate, so the parent itself need not be kept.
+	 * @param p The first position.
+	 * @param q The second position.
+	 * @return true if the move undoes the one that created the candidate.
+	 */
+	private boolean isBack(int p, int q) {
+		return (p == candidate.movedFirst && q == candidate.movedSecond)
+			|| (p == candidate.movedSecond && q == candidate.movedFirst);
+	}
+
+	/**
+	 * Exchange two points, which changes two segments in the candidate.
+	 * @param candidate The candidate which will have its segments changed.
+	 * @param bIndex The position of the second point of the first segment.
+	 * @param cIndex The position of the first point of the second segment.
+	 * @return The candidate, updated.
+	 */
+	private Candidate twoExchange(Candidate candidate, int bIndex, int cIndex) {
+		Candidate answer = new Candidate(candidate);
+		int b = answer.tour[bIndex];
+
+		answer.tour[bIndex] = answer.tour[cIndex];
+		answer.tour[cIndex] = b;
+		answer.movedFirst = bIndex;
+		answer.movedSecond = cIndex;
+		if(candidate.isPerimeterKnown())		// otherwise the child works it out if it is ever asked for
+			answer.setPerimeter(candidate.getPerimeter() + evaluator.perimeterDelta(bIndex, cIndex));
+		answer.setTourHash(candidate.getTourHash() + candidate.swapHashDelta(bIndex, cIndex));
+
+		return answer;
+	}
+
+}
@@ -0,0 +1,267 @@
+package polygon;
+
+import java.util.Arrays;
+import java.util.SplittableRandom;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.IntStream;
+
+/**
+ * Generates sets of distinct random points with integer coordinates inside the square [-M, M-2] x [-M, M-2].
+ * Points are drawn in chunks, each from its own stream split from the seed, so large sets are filled on every core
+ * and the same seed always gives the same points. Repeated points are then replaced in a single pass that checks
+ * an occupancy bitset (or a hash set, for sparse boundaries) in O(1) per point. When more than half of the square
+ * is asked for, the cells are picked directly instead, weighted by the distribution when it is not uniform.
+ *
+ * @author Felipe Valverde
+ * @author Murilo Rosa
+ */
+class PointGenerator {
+
+	public static final byte UNIFORM = 1;
+	public static final byte CLUSTERED = 2;
+	public static final byte GAUSSIAN = 3;
+
+	private static final int CHUNK = 1 << 15;
+
+	private final int boundary;
+	private final int side;
+	private final byte distribution;
+	private final long seed;
+	private int threads;
+
+	private int clusters;
+	private double[] centerX, centerY;
+	private double spread;
+
+	/**
+	 * Default constructor for the class PointGenerator.
+	 * @param boundary The boundary M of the square.
+	 * @param distribution How the points are spread (UNIFORM, CLUSTERED or GAUSSIAN).
+	 * @param seed The seed of the random streams.
+	 */
+	public PointGenerator(int boundary, byte distribution, long seed){
+		this.boundary = boundary;
+		this.side = Math.max(1, 2 * boundary - 1);
+		this.distribution = distribution;
+		this.seed = seed;
+		this.threads = 0;
+	}
+
+	/**
+	 * Setter for the number of threads used to draw the points.
+	 * @param threads The number of threads, or 0 to use the common pool.
+	 */
+	public void setThreads(int threads){
+		this.threads = threads;
+	}
+
+	/**
+	 * Finds how many different points fit inside a boundary.
+	 * @param boundary The boundary M of the square.
+	 * @return the number of points with integer coordinates in the square.
+	 */
+	public static long capacity(int boundary){
+		long side = Math.max(1, 2L * boundary - 1);
+		return side * side;
+	}
+
+	// ------------------------- Generation ------------------------------- //
+
+	/**
+	 * Generates a set of distinct points.
+	 * @param n The number of points.
+	 * @return the generated points.
+	 */
+	public PointSet generate(int n){
+		if(n > capacity(boundary))
+			throw new IllegalArgumentException("Boundary too small.");
+
+		SplittableRandom master = new SplittableRandom(seed);
+		int[] xs = new int[n], ys = new int[n];
+		if(distribution == CLUSTERED) {
+			clusters = Math.max(1, (int)Math.sqrt(n) / 8);
+			centerX = new double[clusters];
+			centerY = new double[clusters];
+			for(int c = 0; c < clusters; c++) {
+				centerX[c] = master.nextDouble() * side;
+				centerY[c] = master.nextDouble() * side;
+			}
+			spread = side / (4.0 * Math.sqrt(clusters));
+		}
+
+		if(n > capacity(boundary) / 2 && capacity(boundary) < Integer.MAX_VALUE) {		// almost full, so pick the cells directly
+			if(distribution == CLUSTERED || distribution == GAUSSIAN)
+				pickWeightedCells(master, n, xs, ys);
+			else
+				pickCells(master, n, xs, ys);
+			return new PointSet(xs, ys);
+		}
+
+		int chunks = (n + CHUNK - 1) / CHUNK;
+		SplittableRandom[] streams = new SplittableRandom[chunks];
+		for(int c = 0; c < chunks; c++)
+			streams[c] = master.split();
+		Runnable fill = () -> IntStream.range(0, chunks).parallel().forEach(c -> {
+			for(int i = c * CHUNK; i < Math.min(n, (c + 1) * CHUNK); i++)
+				draw(streams[c], xs, ys, i);
+		});
+		if(threads > 0) {
+			ForkJoinPool pool = new ForkJoinPool(threads);
+			try {
+				pool.submit(fill).join();
+			} finally {
+				pool.shutdown();
+			}
+		}
+		else
+			fill.run();
+
+		Occupancy taken = new Occupancy(n);
+		for(int i = 0; i < n; i++)
+			while(!taken.add(xs[i], ys[i]))		// about n/(2M)^2 chance
+				draw(master, xs, ys, i);
+		return new PointSet(xs, ys);
+	}
+
+	/**
+	 * Draws one point from the chosen distribution, redrawing until it falls inside the square.
+	 */
+	private void draw(SplittableRandom random, int[] xs, int[] ys, int i){
+		long x, y;
+		do {
+			switch(distribution) {
+				case CLUSTERED:
+					int c = random.nextInt(clusters);
+					x = Math.round(centerX[c] + random.nextGaussian() * spread);
+					y = Math.round(centerY[c] + random.nextGaussian() * spread);
+					break;
+				case GAUSSIAN:
+					x = Math.round(side / 2.0 + random.nextGaussian() * side / 6.0);
+					y = Math.round(side / 2.0 + random.nextGaussian() * side / 6.0);
+					break;
+				default:
+					x = random.nextInt(side);
+					y = random.nextInt(side);
+			}
+		} while(x < 0 || x >= side || y < 0 || y >= side);
+		xs[i] = (int)x - boundary;
+		ys[i] = (int)y - boundary;
+	}
+
+	/**
+	 * Chooses n different cells of the square with a partial shuffle, for when rejecting repeated points would be slow.
+	 */
+	private void pickCells(SplittableRandom random, int n, int[] xs, int[] ys){
+		int cells = (int)capacity(boundary);
+		int[] cell = new int[cells];
+		for(int i = 0; i < cells; i++)
+			cell[i] = i;
+		for(int i = 0; i < n; i++) {
+			int j = i + random.nextInt(cells - i);
+			int swap = cell[i];
+			cell[i] = cell[j];
+			cell[j] = swap;
+			xs[i] = cell[i] % side - boundary;
+			ys[i] = cell[i] / side - boundary;
+		}
+	}
+
+	/**
+	 * Chooses n different cells with probabilities following the distribution, for when rejecting repeated points
+	 * would be slow. Every cell gets the key E/w, with E exponential and w the density at the cell, and the n smallest
+	 * keys are kept, which samples without replacement in proportion to w. Keys are kept as logarithms so that cells
+	 * far from every center still have an order. The chosen cells are then shuffled, as they come out in cell order.
+	 */
+	private void pickWeightedCells(SplittableRandom random, int n, int[] xs, int[] ys){
+		int cells = (int)capacity(boundary);
+		double[] key = new double[cells];
+		for(int i = 0; i < cells; i++)
+			key[i] = Math.log(-Math.log(1.0 - random.nextDouble())) - logDensity(i % side, i / side);
+		double[] sorted = key.clone();
+		Arrays.sort(sorted);
+		double threshold = sorted[n - 1];
+
+		int k = 0;
+		for(int i = 0; i < cells && k < n; i++)		// ties on the threshold are taken in cell order
+			if(key[i] < threshold)
+				k = place(i, k, xs, ys);
+		for(int i = 0; i < cells && k < n; i++)
+			if(key[i] == threshold)
+				k = place(i, k, xs, ys);
+
+		for(int i = n - 1; i > 0; i--) {
+			int j = random.nextInt(i + 1);
+			int swap = xs[i]; xs[i] = xs[j]; xs[j] = swap;
+			swap = ys[i]; ys[i] = ys[j]; ys[j] = swap;
+		}
+	}
+
+	/**
+	 * Writes a cell as the k-th point.
+	 * @return the index of the next point.
+	 */
+	private int place(int cell, int k, int[] xs, int[] ys){
+		xs[k] = cell % side - boundary;
+		ys[k] = cell / side - boundary;
+		return k + 1;
+	}
+
+	/**
+	 * Finds the logarithm of the density of the distribution at a cell, up to a constant.
+	 */
+	private double logDensity(int x, int y){
+		if(distribution == GAUSSIAN) {
+			double sigma = side / 6.0, dx = x - side / 2.0, dy = y - side / 2.0;
+			return -(dx * dx + dy * dy) / (2 * sigma * sigma);
+		}
+		double max = Double.NEGATIVE_INFINITY;
+		for(int c = 0; c < clusters; c++)
+			max = Math.max(max, clusterExponent(c, x, y));
+		double sum = 0;		// log-sum-exp, so that no term underflows to zero
+		for(int c = 0; c < clusters; c++)
+			sum += Math.exp(clusterExponent(c, x, y) - max);
+		return max + Math.log(sum);
+	}
+
+	/**
+	 * Finds the exponent of the gaussian of a cluster at a cell.
+	 */
+	private double clusterExponent(int c, int x, int y){
+		double dx = x - centerX[c], dy = y - centerY[c];
+		return -(dx * dx + dy * dy) / (2 * spread * spread);
+	}
+
+	/**
+	 * Marks the points already taken: a bitset over the whole square when it is small enough compared to n,
+	 * and a hash set otherwise.
+	 */
+	private class Occupancy {
+		private final long[] bits;
+		private final LongHashSet set;
+
+		Occupancy(int n){
+			long cells = capacity(boundary);
+			if(cells <= 128L * n && cells / 64 < Integer.MAX_VALUE) {
+				bits = new long[(int)(cells / 64 + 1)];
+				set = null;
+			}
+			else {
+				bits = null;
+				set = new LongHashSet(n);
+			}
+		}
+
+		boolean add(int x, int y){
+			long cell = (long)(y + boundary) * side + (x + boundary);
+			if(set != null)
+				return set.add(cell);
+			int word = (int)(cell >>> 6);
+			long mask = 1L << cell;
+			if((bits[word] & mask) != 0)
+				return false;
+			bits[word] |= mask;
+			return true;
+		}
+	}
+
+}
@@ -0,0 +1,78 @@
+package polygon;
+
+/**
+ * The coordinates of every point of an instance, stored once in two primitive arrays.
+ * Tours only keep the indices of the points, so every Candidate built over the same instance shares this set.
+ *
+ * @author Felipe Valverde
+ * @author Murilo Rosa
+ */
+class PointSet {
+
+	final int[] xs;
+	final int[] ys;
+	private volatile int[] sortedByX;
+
+	/**
+	 * Default constructor for the class PointSet.
+	 * @param xs The X coordinates of the points.
+	 * @param ys The Y coordinates of the points, in the same order as xs.
+	 */
+	public PointSet(int[] xs, int[] ys){
+		this.xs = xs;
+		this.ys = ys;
+	}
+
+	/**
+	 * Getter for the number of points.
+	 * @return the number of points in the set.
+	 */
+	public int size(){
+		return xs.length;
+	}
+
+	/**
+	 * Getter for the X value of a point.
+	 * @param i The index of the point.
+	 * @return x value.
+	 */
+	public int getX(int i){
+		return xs[i];
+	}
+
+	/**
+	 * Getter for the Y value of a point.
+	 * @param i The index of the point.
+	 * @return y value.
+	 */
+	public int getY(int i){
+		return ys[i];
+	}
+
+	/**
+	 * Getter for the points in order of x, and then of y, which is the order a sweep from left to right meets them.
+	 * The order is found the first time it is asked for and shared by every candidate after that.
+	 * @return the indices of the points, sorted; the array must not be changed.
+	 */
+	int[] sortedByX(){
+		int[] order = sortedByX;
+		if(order == null) {
+			order = new int[size()];
+			for(int i = 0; i < order.length; i++)
+				order[i] = i;
+			IntSort.sort(order, 0, order.length, (a, b) -> xs[a] != xs[b] ? Integer.compare(xs[a], xs[b]) : Integer.compare(ys[a], ys[b]));
+			sortedByX = order;
+		}
+		return order;
+	}
+
+	/**
+	 * Builds a view of a point, to be used when printing.
+	 * @param i The index of the point.
+	 * @return a new Coordinate with the values and the name of the point.
+	 */
+	public Coordinate get(int i){
+		return new Coordinate(xs[i], ys[i], i);
+	}
+
+}
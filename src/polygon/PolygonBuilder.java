@@ -0,0 +1,209 @@
+package polygon;
+
+import java.util.Random;
+
+/**
+ * Builds paths that are already simple polygons, so they need no repair at all: a sort around a point on the hull
+ * (star-shaped), two chains sorted from left to right (x-monotone), and a random space partitioning.
+ * Every predicate is an exact integer orientation or dot product, so the results are simple for every set of points
+ * that is not all on one line, however many points are collinear. The first two cost one sort, and the last one costs
+ * as much as a quicksort: O(n log n) on average.
+ *
+ * @author Felipe Valverde
+ * @author Murilo Rosa
+ */
+final class PolygonBuilder {
+
+	private PolygonBuilder(){ }
+
+	// ------------------------- Star-shaped ------------------------------- //
+
+	/**
+	 * Sorts the points by their angle around the leftmost one (the lowest, if there are many), which sees every other
+	 * point inside the half-plane to its right. Points at the same angle go from the nearest to the farthest, except on
+	 * the last ray, which is walked back towards the first point.
+	 * @param points The points.
+	 * @param tour Where the order is written.
+	 */
+	static void starShaped(PointSet points, int[] tour) {
+		int n = tour.length;
+		if(n == 0)
+			return;
+		int[] xs = points.xs, ys = points.ys;
+		int pivot = 0;
+		for(int i = 1; i < n; i++)
+			if(xs[i] < xs[pivot] || (xs[i] == xs[pivot] && ys[i] < ys[pivot]))
+				pivot = i;
+		int px = xs[pivot], py = ys[pivot];
+
+		tour[0] = pivot;
+		for(int i = 0, j = 1; i < n; i++)
+			if(i != pivot)
+				tour[j++] = i;
+		IntSort.sort(tour, 1, n, (a, b) -> {
+			int turn = Geometry.orientation(px, py, xs[a], ys[a], xs[b], ys[b]);
+			if(turn != 0)
+				return -turn;		// counterclockwise from the lowest angle
+			return Long.compare(distance(px, py, xs[a], ys[a]), distance(px, py, xs[b], ys[b]));
+		});
+
+		int last = n - 1;		// the farthest point on the last ray
+		while(last > 1 && Geometry.orientation(px, py, xs[tour[last - 1]], ys[tour[last - 1]], xs[tour[n - 1]], ys[tour[n - 1]]) == 0)
+			last--;
+		reverse(tour, last, n);
+	}
+
+	// ------------------------- X-monotone ------------------------------- //
+
+	/**
+	 * Goes from the leftmost point to the rightmost one through every point above the line between them, and back
+	 * through every point below it, both times in order of x (and then y). Points on that line are walked back with the
+	 * points below, unless there are no points above, in which case they are walked forward instead.
+	 * @param points The points.
+	 * @param tour Where the order is written.
+	 */
+	static void xMonotone(PointSet points, int[] tour) {
+		int n = tour.length;
+		System.arraycopy(points.sortedByX(), 0, tour, 0, n);
+		if(n < 4)
+			return;
+
+		int s = tour[0], e = tour[n - 1];
+		boolean anyAbove = false;
+		for(int i = 1; i < n - 1 && !anyAbove; i++)
+			anyAbove = side(points, s, e, tour[i]) > 0;
+
+		int[] chain = new int[n];
+		int head = 0, tail = n;
+		chain[head++] = s;
+		for(int i = 1; i < n - 1; i++) {
+			int p = tour[i];
+			int side = side(points, s, e, p);
+			if(anyAbove ? side > 0 : side == 0)		// the points on the line go forward only if none are above
+				chain[head++] = p;
+			else
+				chain[--tail] = p;		// the other chain is filled from the end, so it comes back from right to left
+		}
+		chain[head] = e;
+		System.arraycopy(chain, 0, tour, 0, n);
+	}
+
+	// ------------------------- Space partitioning --------------------------- //
+
+	/**
+	 * Builds a polygon by space partitioning: the line between the leftmost and the rightmost points splits the points
+	 * into two sides, and each side is joined by a path between those two points. A path from s to e through a set of
+	 * points picks a random point r of the set and a line through r that has s and e on opposite sides; the points on
+	 * the side of s are joined by a path from s to r, and the others by a path from r to e. The two smaller paths live in
+	 * the hulls of their sides, which only meet at r, so the whole path never crosses itself.
+	 * Points lying exactly on a line are given to one side as if the line were turned by a tiny angle around r, so the
+	 * sides still only meet at r. The sides are made in place, like the partitions of a quicksort, so when every path is
+	 * done the array is the polygon.
+	 * @param points The points.
+	 * @param tour Where the order is written.
+	 * @param random The random generator choosing the points r.
+	 */
+	static void spacePartitioning(PointSet points, int[] tour, Random random) {
+		int n = tour.length;
+		xMonotone(points, tour);		// the same two sides, with the leftmost point first and the rightmost one between them
+		if(n < 4)
+			return;
+		int right = rightmost(points, tour), middle = 0;
+		while(tour[middle] != right)
+			middle++;
+
+		IntList pending = new IntList();		// (from, to, s, e): the points in tour[from, to) still to be joined from s to e
+		push(pending, 1, middle, tour[0], tour[middle]);
+		push(pending, middle + 1, n, tour[middle], tour[0]);
+		while(pending.size() > 0) {
+			int size = pending.size();
+			int e = pending.get(size - 1), s = pending.get(size - 2), to = pending.get(size - 3), from = pending.get(size - 4);
+			pending.truncate(size - 4);
+			if(to - from < 2)
+				continue;		// a single point is already its own path
+
+			int pick = from + random.nextInt(to - from);
+			int r = tour[pick];
+			tour[pick] = tour[from];
+			tour[from] = r;
+			int split = partition(points, tour, from + 1, to, s, r, e);
+			tour[from] = tour[split - 1];		// r goes between the two sides
+			tour[split - 1] = r;
+			push(pending, from, split - 1, s, r);
+			push(pending, split, to, r, e);
+		}
+	}
+
+	/**
+	 * Moves the points of tour[from, to) on the side of s to the front.
+	 * @return the end of the points on the side of s.
+	 */
+	private static int partition(PointSet points, int[] tour, int from, int to, int s, int r, int e) {
+		int[] xs = points.xs, ys = points.ys;
+		long rx = xs[r], ry = ys[r];
+		long sx = xs[s] - rx, sy = ys[s] - ry, ex = xs[e] - rx, ey = ys[e] - ry;
+		// the dividing line goes through r and the middle of se, doubled to stay on integers; if r is on the line se,
+		// it goes across se instead
+		long dx = sx + ex, dy = sy + ey;
+		if(Geometry.cross(sx, sy, ex, ey) == 0) {
+			dx = sy - ey;
+			dy = ex - sx;
+		}
+		int sSide = sideOf(sx, sy, dx, dy);
+
+		int i = from, j = to;
+		while(i < j) {
+			int p = tour[i];
+			if(sideOf(xs[p] - rx, ys[p] - ry, dx, dy) == sSide)
+				i++;
+			else {
+				tour[i] = tour[--j];
+				tour[j] = p;
+			}
+		}
+		return i;
+	}
+
+	/**
+	 * Finds the side of the line through r with direction d of a point at v from r, as if the line were turned by a
+	 * tiny angle around r: points on the line ahead of r go to the left, and points behind it go to the right.
+	 */
+	private static int sideOf(long vx, long vy, long dx, long dy) {
+		int side = Geometry.cross(dx, dy, vx, vy);
+		return side != 0 ? side : Geometry.dot(dx, dy, vx, vy);
+	}
+
+	// ------------------------- Helpers ---------------------------------- //
+
+	private static int side(PointSet points, int s, int e, int p) {
+		return Geometry.orientation(points.xs[s], points.ys[s], points.xs[e], points.ys[e], points.xs[p], points.ys[p]);
+	}
+
+	private static int rightmost(PointSet points, int[] tour) {
+		int best = tour[0];
+		for(int p : tour)
+			if(points.xs[p] > points.xs[best] || (points.xs[p] == points.xs[best] && points.ys[p] > points.ys[best]))
+				best = p;
+		return best;
+	}
+
+	private static long distance(int x1, int y1, int x2, int y2) {
+		return Math.abs((long)x2 - x1) + Math.abs((long)y2 - y1);		// enough to order points on one ray
+	}
+
+	private static void push(IntList pending, int from, int to, int s, int e) {
+		pending.add(from);
+		pending.add(to);
+		pending.add(s);
+		pending.add(e);
+	}
+
+	private static void reverse(int[] a, int from, int to) {
+		for(int i = from, j = to - 1; i < j; i++, j--) {
+			int swap = a[i];
+			a[i] = a[j];
+			a[j] = swap;
+		}
+	}
+
+}
@@ -0,0 +1,124 @@
+package polygon;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.PrintWriter;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Checks whether polygon files are simple. A file holds the vertices of one polygon in order, as "x y" pairs of
+ * integers separated by any other characters (spaces, line breaks, commas, brackets), and the last vertex is joined
+ * back to the first. Files are read through a small buffer straight into primitive arrays, and checked with the
+ * Shamos-Hoey sweep of SweepLine, which stops at the first pair of intersecting lines. Each file gets one line:
+ * <pre>
+ * name vertices milliseconds simple
+ * name vertices milliseconds not-simple lines i j        (line i goes from vertex i to vertex i+1)
+ * name vertices milliseconds not-simple repeated i j     (vertices i and j are the same point)
+ * name vertices milliseconds invalid                     (fewer than 3 vertices, or an odd number of integers)
+ * </pre>
+ *
+ * @author Felipe Valverde
+ * @author Murilo Rosa
+ */
+class PolygonValidator {
+
+	private static final int BUFFER = 1 << 16;
+
+	private final byte[] buffer = new byte[BUFFER];
+	private int length, next;
+
+	/**
+	 * Checks one polygon and writes its line.
+	 * @param name The name written at the start of the line.
+	 * @param in The vertices of the polygon.
+	 * @param out Where the line is written.
+	 * @return true if the polygon is simple.
+	 * @throws IOException if the vertices cannot be read.
+	 */
+	public boolean validate(String name, InputStream in, PrintWriter out) throws IOException {
+		long start = System.nanoTime();
+		IntList values = read(in);
+		String verdict = check(values);
+		long millis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+		out.println(name + " " + values.size() / 2 + " " + millis + " " + verdict);
+		out.flush();
+		return verdict.equals("simple");
+	}
+
+	/**
+	 * Checks the vertices read from a file.
+	 * @return "simple", "not-simple" followed by the offending lines or vertices, or "invalid".
+	 */
+	private String check(IntList values) {
+		if(values.size() % 2 != 0 || values.size() < 6)
+			return "invalid";
+		int n = values.size() / 2;
+		int[] xs = new int[n], ys = new int[n];
+		LongHashSet seen = new LongHashSet(n);
+		for(int i = 0; i < n; i++) {
+			xs[i] = values.get(2 * i);
+			ys[i] = values.get(2 * i + 1);
+			if(!seen.add(((long)xs[i] << 32) | (ys[i] & 0xFFFFFFFFL)))
+				return "not-simple repeated " + firstOf(xs, ys, i) + " " + i;
+		}
+
+		long crossing = SweepLine.firstCrossing(new Candidate(new PointSet(xs, ys)));
+		if(crossing == -1)
+			return "simple";
+		return "not-simple lines " + (crossing >>> 32) + " " + (int)crossing;
+	}
+
+	private static int firstOf(int[] xs, int[] ys, int i) {
+		int j = 0;
+		while(xs[j] != xs[i] || ys[j] != ys[i])
+			j++;
+		return j;
+	}
+
+	// ------------------------- Reading ---------------------------------- //
+
+	/**
+	 * Reads every integer of a stream.
+	 */
+	private IntList read(InputStream in) throws IOException {
+		IntList values = new IntList();
+		length = 0;
+		next = 0;
+		int c = nextByte(in);
+		while(c != -1) {
+			if(c != '-' && (c < '0' || c > '9')) {
+				c = nextByte(in);
+				continue;
+			}
+			boolean negative = c == '-';
+			if(negative)
+				c = nextByte(in);
+			if(c < '0' || c > '9')
+				continue;		// a lone minus sign
+			long value = 0;
+			for(; c >= '0' && c <= '9'; c = nextByte(in)) {
+				value = value * 10 + (c - '0');
+				if(value > (long)Integer.MAX_VALUE + 1)
+					throw new IOException("Coordinate out of range.");
+			}
+			value = negative ? -value : value;
+			if(value > Integer.MAX_VALUE)
+				throw new IOException("Coordinate out of range.");
+			values.add((int)value);
+		}
+		return values;
+	}
+
+	private int nextByte(InputStream in) throws IOException {
+		if(next == length) {
+			length = in.read(buffer, 0, buffer.length);
+			next = 0;
+			if(length <= 0) {
+				length = 0;
+				return -1;
+			}
+		}
+		return buffer[next++] & 0xFF;		// only the end of the stream is -1
+	}
+
+}
@@ -0,0 +1,595 @@
+package polygon;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Races many pipelines on the same points, a pipeline being one generator followed by one improvement strategy, as chosen
+ * in the menus of Main, and returns as soon as one of them reaches a simple polygon.
+ * Every pipeline runs in slices on one shared pool: when a slice ends the pipeline goes back to the end of the queue, and
+ * its next slice is longer or shorter as it has been lowering its intersections faster or slower than the others, so the
+ * pipelines doing well get most of the time. Once a pipeline has had a few slices, it is stopped if at its pace it would
+ * need far longer to reach 0 than the leader, the pipeline that would need the least.
+ * Each generator builds its candidate once, and the pipelines that start from it work on their own copies.
+ * A portfolio keeps statistics for every pipeline over all the point sets it solved, to show which are worth using.
+ *
+ * @author Felipe Valverde
+ * @author Murilo Rosa
+ */
+class Portfolio {
+
+	public static final long DEFAULT_SLICE = 20;
+	private static final int WARM_UP = 3;		// slices before a pipeline is judged
+	private static final double PRUNE_FACTOR = 4;
+	private static final int MIN_RUNNING = 2;		// pipelines never pruned below, in case the leader gives up later
+	private static final double MIN_SHARE = 0.25, MAX_SHARE = 4;
+	private static final double SMOOTHING = 0.25;
+
+	private static final String[] GENERATOR_NAMES = { "", "random-permutation", "nearest-neighbour", "ant-colony",
+		"multi-start", "star-shaped", "x-monotone", "space-partitioning" };
+	private static final String[] STRATEGY_NAMES = { "none", "best-improvement", "first-improvement", "less-conflicts",
+		"anyone", "annealing", "untangling", "local-search" };
+
+	private int threads;
+	private long budget;
+	private long slice;
+	private int ants;
+	private long iterations;
+	private int tabuTenure;
+	private byte[] generators;
+	private byte[] strategies;
+
+	private final Map<String, Record> records = new LinkedHashMap<>();
+
+	/**
+	 * Default constructor for the class Portfolio: random permutation, nearest neighbour and ant colony, each followed by
+	 * best-improvement, first-improvement, less-conflicts, anyone and simulated annealing, with no time limit.
+	 */
+	public Portfolio(){
+		threads = Runtime.getRuntime().availableProcessors();
+		budget = Long.MAX_VALUE;
+		slice = TimeUnit.MILLISECONDS.toNanos(DEFAULT_SLICE);
+		ants = 10;
+		iterations = 10000;
+		tabuTenure = TabuList.DEFAULT_TENURE;
+		generators = new byte[] { Solver.RANDOM_PERMUTATION, Solver.NEAREST_NEIGHBOUR, Solver.ANT_COLONY };
+		strategies = new byte[] { Solver.BEST_IMPROVEMENT, Solver.FIRST_IMPROVEMENT, Solver.LESS_CONFLICTS, Solver.ANYONE,
+			Solver.ANNEALING };
+	}
+
+	// ------------------------- Setters ---------------------------------- //
+
+	/**
+	 * Setter for the pipelines raced: every generator followed by every strategy.
+	 * @param generators The generators, as in Solver, except MULTI_START, which is a race of its own.
+	 * @param strategies The strategies, as in Solver, except NONE.
+	 */
+	public void setPipelines(byte[] generators, byte[] strategies){
+		for(byte generator : generators)
+			if(generator < Solver.RANDOM_PERMUTATION || generator > Solver.SPACE_PARTITIONING || generator == Solver.MULTI_START)
+				throw new IllegalArgumentException("Unknown generator " + generator);
+		for(byte strategy : strategies)
+			if(strategy < Solver.BEST_IMPROVEMENT || strategy > Solver.LOCAL_SEARCH)
+				throw new IllegalArgumentException("Unknown strategy " + strategy);
+		if(generators.length == 0 || strategies.length == 0)
+			throw new IllegalArgumentException("No pipelines");
+		this.generators = generators.clone();
+		this.strategies = strategies.clone();
+	}
+
+	/**
+	 * Setter for the number of threads shared by the pipelines.
+	 * @param threads The number of threads.
+	 */
+	public void setThreads(int threads){
+		this.threads = Math.max(1, threads);
+	}
+
+	/**
+	 * Setter for the wall-clock budget of one race.
+	 * @param budget The time, in milliseconds, after which the best candidate so far is returned.
+	 */
+	public void setBudget(long budget){
+		this.budget = budget;
+	}
+
+	/**
+	 * Setter for the length of a slice; the slices of a pipeline go from a quarter of it to four times it.
+	 * @param slice The time, in milliseconds, a pipeline runs before it goes back to the queue.
+	 */
+	public void setSlice(long slice){
+		this.slice = TimeUnit.MILLISECONDS.toNanos(Math.max(1, slice));
+	}
+
+	/**
+	 * Setter for the number of ants sent out by the ant colony.
+	 * @param ants The number of ants.
+	 */
+	public void setAnts(int ants){
+		this.ants = ants;
+	}
+
+	/**
+	 * Setter for the number of moves proposed by simulated annealing.
+	 * @param iterations The number of proposals.
+	 */
+	public void setIterations(long iterations){
+		this.iterations = iterations;
+	}
+
+	/**
+	 * Setter for how many of its last candidates a pipeline may not go back to.
+	 * @param tabuTenure The length of the tabu list of every pipeline.
+	 */
+	public void setTabuTenure(int tabuTenure){
+		this.tabuTenure = tabuTenure;
+	}
+
+	// ------------------------- Solving ---------------------------------- //
+
+	/**
+	 * Races every pipeline until one of them reaches a simple polygon, all of them are stopped, or the budget runs out.
+	 * Separate point sets may be solved at the same time, each race on its own pool.
+	 * @param points The points of the polygon.
+	 * @param seed The seed every random choice is drawn from.
+	 * @return the candidate with the fewest intersections (and then the smallest perimeter) reached by any pipeline.
+	 * @throws InterruptedException if the calling thread is interrupted while waiting.
+	 */
+	public Candidate solve(PointSet points, long seed) throws InterruptedException {
+		Race race = new Race(points, seed);
+		Candidate best = race.run();
+		record(race);
+		return best;
+	}
+
+	/**
+	 * Writes the statistics of every pipeline over the races run so far, one line each, from the one that won the most.
+	 * The rate is the number of intersections a pipeline took out per millisecond of its own slices.
+	 * @return the lines, after a line naming the columns.
+	 */
+	public synchronized String report(){
+		List<Record> sorted = new ArrayList<>(records.values());
+		sorted.sort((a, b) -> a.wins != b.wins ? Integer.compare(b.wins, a.wins) : Long.compare(a.nanos, b.nanos));
+		StringBuilder text = new StringBuilder(String.format(Locale.ROOT, "%-38s %6s %6s %6s %6s %7s %6s %12s %10s%n",
+			"pipeline", "runs", "wins", "solved", "pruned", "gave-up", "failed", "milliseconds", "rate"));
+		for(Record record : sorted) {
+			double millis = record.sliceNanos / 1e6;
+			text.append(String.format(Locale.ROOT, "%-38s %6d %6d %6d %6d %7d %6d %12d %10.3f%n", record.name, record.runs,
+				record.wins, record.solved, record.pruned, record.gaveUp, record.failed,
+				TimeUnit.NANOSECONDS.toMillis(record.nanos), millis > 0 ? record.removed / millis : 0));
+		}
+		return text.toString();
+	}
+
+	/**
+	 * Adds the outcome of every pipeline of a race to its statistics.
+	 */
+	private synchronized void record(Race race){
+		synchronized(race) {
+			for(Pipeline pipeline : race.pipelines) {
+				Record record = records.computeIfAbsent(pipeline.name, Record::new);
+				record.runs++;
+				if(pipeline == race.winner)
+					record.wins++;
+				switch(pipeline.state) {
+					case SOLVED: record.solved++; break;
+					case PRUNED: record.pruned++; break;
+					case GAVE_UP: record.gaveUp++; break;
+					case FAILED: record.failed++; break;
+					default: break;
+				}
+				record.nanos += pipeline.buildNanos + pipeline.nanos;
+				record.sliceNanos += pipeline.nanos;
+				if(pipeline.best != null)
+					record.removed += pipeline.startCount - pipeline.best.getIntersectionCount();
+			}
+		}
+	}
+
+	private static String name(byte generator, byte strategy){
+		return GENERATOR_NAMES[generator] + "+" + STRATEGY_NAMES[strategy];
+	}
+
+	// ------------------------- Race ------------------------------------- //
+
+	private enum State { WAITING, RUNNING, SOLVED, GAVE_UP, PRUNED, FAILED }
+
+	/**
+	 * The pipelines of one point set, and the pool they share.
+	 * Everything but the candidates of a pipeline is only read and written while holding the lock of the race, and a
+	 * pipeline's candidates are only touched by the one thread running its slice.
+	 */
+	private final class Race {
+
+		final PointSet points;
+		final long seed;
+		final long deadline;
+		final List<Pipeline> pipelines = new ArrayList<>();
+		final ExecutorService pool;
+		volatile boolean over;
+		int running;
+		Pipeline winner;
+		Candidate best;		// the best candidate of the winner when it was offered, which its pipeline may have left since
+
+		Race(PointSet points, long seed){
+			this.points = points;
+			this.seed = seed;
+			this.deadline = budget == Long.MAX_VALUE ? Long.MAX_VALUE : System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(budget);
+			for(byte generator : generators)
+				for(byte strategy : strategies)
+					pipelines.add(new Pipeline(this, generator, strategy));
+			this.running = pipelines.size();
+			this.pool = Executors.newFixedThreadPool(threads);
+		}
+
+		/**
+		 * Builds every candidate, then lets the pipelines run until the race is over.
+		 */
+		Candidate run() throws InterruptedException {
+			try {
+				for(byte generator : generators)
+					pool.submit(() -> build(generator));
+				synchronized(this) {
+					// as in Solver, a candidate is always built, even if that takes longer than the budget
+					while(!over && running > 0 && (best == null || System.nanoTime() < deadline)) {
+						long left = deadline - System.nanoTime();
+						if(left > 0)
+							TimeUnit.NANOSECONDS.timedWait(this, left);
+						else
+							wait();
+					}
+					over = true;		// stops the slices still running
+				}
+			} finally {
+				over = true;
+				pool.shutdownNow();
+				// every slice checks its end, so they all stop soon, and then nothing touches the pipelines any more
+				pool.awaitTermination(Long.MAX_VALUE, TimeUnit.NANOSECONDS);
+			}
+			synchronized(this) {
+				return best;
+			}
+		}
+
+		/**
+		 * Builds the candidate of a generator and starts every pipeline that begins with it.
+		 */
+		private void build(byte generator){
+			long start = System.nanoTime();
+			Candidate built;
+			try {
+				built = construct(generator);
+				built.getIntersectionCount();		// counted once here, not once by every copy
+			} catch(RuntimeException | OutOfMemoryError e) {
+				built = null;		// the other generators go on without this one
+			}
+			long nanos = System.nanoTime() - start;
+			Stats.stop(Stats.Phase.CONSTRUCTION, start, points.size());
+
+			synchronized(this) {
+				for(Pipeline pipeline : pipelines) {
+					if(pipeline.generator != generator)
+						continue;
+					pipeline.buildNanos = nanos;
+					if(built == null) {
+						stop(pipeline, State.FAILED);
+						continue;
+					}
+					pipeline.begin(built);
+					offer(pipeline);
+					if(built.getIntersectionCount() == 0)
+						stop(pipeline, State.SOLVED);
+					else {
+						pipeline.state = State.RUNNING;
+						submit(pipeline);
+					}
+				}
+				notifyAll();
+			}
+		}
+
+		/**
+		 * Builds the first candidate of a generator, in the thread of the pool it was given.
+		 */
+		private Candidate construct(byte generator){
+			Random random = new Random(seed + 0x9E3779B97F4A7C15L * generator);
+			if(generator != Solver.ANT_COLONY)
+				return new Candidate(points, generator, random);
+			AntColony colony = new AntColony(points, random.nextLong());
+			colony.setPool(null);		// the other pipelines already keep every thread busy
+			return colony.run(ants, () -> over);
+		}
+
+		/**
+		 * Runs one slice of a pipeline, whose length depends on how fast the pipeline has been lately.
+		 */
+		private void slice(Pipeline pipeline){
+			long length;
+			synchronized(this) {
+				if(over || pipeline.state != State.RUNNING)
+					return;
+				length = sliceFor(pipeline);
+			}
+			int before = pipeline.best.getIntersectionCount();
+			long start = System.nanoTime();
+			boolean more;
+			try {
+				more = pipeline.step(Math.min(start + length, deadline));
+			} catch(RuntimeException | OutOfMemoryError e) {		// a failing pipeline lets go of its candidates
+				synchronized(this) {
+					drop(pipeline, State.FAILED);
+				}
+				return;
+			}
+			finish(pipeline, before, System.nanoTime() - start, more);
+		}
+
+		/**
+		 * Takes in what a slice did, then stops the losers and queues the pipeline again.
+		 */
+		private synchronized void finish(Pipeline pipeline, int before, long nanos, boolean more){
+			pipeline.slices++;
+			pipeline.nanos += nanos;
+			double rate = (before - pipeline.best.getIntersectionCount()) / Math.max(nanos / 1e6, 1e-3);
+			pipeline.rate = pipeline.slices == 1 ? rate : SMOOTHING * rate + (1 - SMOOTHING) * pipeline.rate;
+			offer(pipeline);
+			if(pipeline.best.getIntersectionCount() == 0) {
+				if(pipeline.state == State.RUNNING)
+					stop(pipeline, State.SOLVED);
+				else
+					pipeline.state = State.SOLVED;		// pruned while its slice ran, but it got there anyway
+				over = true;
+				notifyAll();
+				return;
+			}
+			if(pipeline.state != State.RUNNING)
+				return;		// pruned while its slice ran
+			if(!more)
+				drop(pipeline, State.GAVE_UP);
+			prune();
+			if(pipeline.state == State.RUNNING)
+				submit(pipeline);
+		}
+
+		private void submit(Pipeline pipeline){
+			if(!over)
+				pool.submit(() -> slice(pipeline));
+		}
+
+		/**
+		 * Finds how long the next slice of a pipeline is: the default one while it warms up, and then more or less
+		 * than that as the rate of the pipeline is above or below the mean rate of the running ones.
+		 */
+		private long sliceFor(Pipeline pipeline){
+			if(pipeline.slices < WARM_UP)
+				return slice;
+			double sum = 0;
+			int judged = 0;
+			for(Pipeline other : pipelines)
+				if(other.state == State.RUNNING && other.slices >= WARM_UP) {
+					sum += other.rate;
+					judged++;
+				}
+			if(sum <= 0)
+				return slice;
+			double share = pipeline.rate / (sum / judged);
+			return (long)(slice * Math.max(MIN_SHARE, Math.min(MAX_SHARE, share)));
+		}
+
+		/**
+		 * Stops the judged pipelines that would need PRUNE_FACTOR times as long as the leader to reach 0, the slowest
+		 * first, while more than MIN_RUNNING pipelines are running.
+		 */
+		private void prune(){
+			double leader = Double.POSITIVE_INFINITY;
+			for(Pipeline pipeline : pipelines)
+				if(pipeline.state == State.RUNNING && pipeline.slices >= WARM_UP)
+					leader = Math.min(leader, pipeline.eta());
+			if(leader == Double.POSITIVE_INFINITY)
+				return;		// nobody is making progress, so nobody is judged
+			while(running > MIN_RUNNING) {
+				Pipeline slowest = null;
+				for(Pipeline pipeline : pipelines)
+					if(pipeline.state == State.RUNNING && pipeline.slices >= WARM_UP && pipeline.eta() > PRUNE_FACTOR * leader
+							&& (slowest == null || pipeline.eta() > slowest.eta()))
+						slowest = pipeline;
+				if(slowest == null)
+					return;
+				stop(slowest, State.PRUNED);
+			}
+		}
+
+		/**
+		 * Stops a pipeline that gave up or failed, and if too few are left running, takes back the pruned one with the
+		 * fewest intersections, which goes on from where it was stopped.
+		 */
+		private void drop(Pipeline pipeline, State state){
+			stop(pipeline, state);
+			if(running >= MIN_RUNNING || over)
+				return;
+			Pipeline back = null;
+			for(Pipeline other : pipelines)
+				if(other.state == State.PRUNED
+						&& (back == null || other.best.getIntersectionCount() < back.best.getIntersectionCount()))
+					back = other;
+			if(back == null)
+				return;
+			back.state = State.RUNNING;
+			running++;
+			submit(back);
+		}
+
+		private void stop(Pipeline pipeline, State state){
+			pipeline.state = state;
+			running--;
+			if(running == 0)
+				notifyAll();
+		}
+
+		/**
+		 * Keeps the best candidate of a pipeline if it beats the best one of the race.
+		 */
+		private void offer(Pipeline pipeline){
+			Candidate candidate = pipeline.best;
+			if(best == null || candidate.getIntersectionCount() < best.getIntersectionCount()
+					|| (candidate.getIntersectionCount() == best.getIntersectionCount() && candidate.getPerimeter() < best.getPerimeter())) {
+				best = candidate;
+				winner = pipeline;
+			}
+		}
+
+	}
+
+	// ------------------------- Pipeline --------------------------------- //
+
+	/**
+	 * One generator and one strategy, improving a candidate a slice at a time.
+	 */
+	private final class Pipeline {
+
+		final Race race;
+		final byte generator;
+		final String name;
+		final Random random;		// the random moves, drawn from the seed of the race and the name of the pipeline
+		byte strategy;
+		State state = State.WAITING;
+
+		Candidate current, best;
+		TabuList tabu;
+		Annealer annealer;
+		Untangler untangler;
+		LocalSearch search;
+		int steps, maxSteps;
+
+		int startCount, slices;
+		long buildNanos, nanos;
+		double rate;		// intersections taken out per millisecond, smoothed over the last slices
+
+		Pipeline(Race race, byte generator, byte strategy){
+			this.race = race;
+			this.generator = generator;
+			this.strategy = strategy;
+			this.name = name(generator, strategy);
+			this.random = new Random(race.seed + 0x9E3779B97F4A7C15L * (name.hashCode() + 1L));
+		}
+
+		/**
+		 * Starts from a copy of the candidate built by the generator.
+		 */
+		void begin(Candidate built){
+			current = new Candidate(built);
+			current.setPool(null);		// the other pipelines already keep every thread busy
+			current.setIntersectionCount(built.getIntersectionCount());
+			best = current;
+			startCount = current.getIntersectionCount();
+			maxSteps = 10 * current.size() + 100;		// some strategies can walk in circles
+			tabu = new TabuList(tabuTenure);
+			tabu.add(current.getTourHash());
+		}
+
+		/**
+		 * Improves the candidate until a moment, or until there is nothing left to do.
+		 * Annealing, untangling and local search are given the rest of the slice as their budget, and go on from where
+		 * their last slice stopped. Whatever they leave is then found by less conflicting, as in Solver.
+		 * @param end The moment, as given by System.nanoTime(), at which the slice ends.
+		 * @return false if the pipeline gave up.
+		 */
+		boolean step(long end){
+			long budget = Math.max(1, TimeUnit.NANOSECONDS.toMillis(end - System.nanoTime()));
+			int maxMoves = 100 * current.size();
+			if(strategy == Solver.ANNEALING) {
+				if(annealer == null)
+					annealer = new Annealer(current, random.nextLong());
+				annealer.setBudget(budget);
+				keep(annealer.run(iterations - annealer.getProposals()));
+				if(annealer.getProposals() >= iterations || best.getIntersectionCount() == 0)
+					handOver(best);
+				return true;
+			}
+			if(strategy == Solver.UNTANGLING) {
+				if(untangler == null)
+					untangler = new Untangler(current);
+				untangler.setBudget(budget);
+				Candidate reached = untangler.run(maxMoves);
+				keep(reached);
+				if(!untangler.isTimedOut())
+					handOver(reached);
+				return true;
+			}
+			if(strategy == Solver.LOCAL_SEARCH) {
+				if(search == null)
+					search = new LocalSearch(current);
+				search.setBudget(budget);
+				Candidate reached = search.run(Math.max(0, maxMoves - search.getMoves()));
+				keep(reached);
+				if(!search.isTimedOut())
+					handOver(reached);
+				return true;
+			}
+
+			while(steps < maxSteps && best.getIntersectionCount() != 0 && !race.over && System.nanoTime() < end) {
+				Candidate next = current.improve(strategy, tabu, random);
+				if(next == null)
+					return false;		// every way out is tabu
+				current = next;
+				steps++;
+				Stats.count(Stats.Counter.MOVES_ACCEPTED);
+				tabu.add(current.getTourHash());
+				keep(current);
+			}
+			return steps < maxSteps;
+		}
+
+		/**
+		 * Goes on by less conflicting from a candidate.
+		 */
+		private void handOver(Candidate from){
+			annealer = null;
+			untangler = null;
+			search = null;
+			strategy = Solver.LESS_CONFLICTS;
+			current = from;
+			tabu.add(current.getTourHash());
+		}
+
+		private void keep(Candidate candidate){
+			if(candidate.getIntersectionCount() < best.getIntersectionCount())
+				best = candidate;		// the tabu list may push the walk uphill, so the best candidate is kept apart
+		}
+
+		/**
+		 * Estimates how long the pipeline needs to reach 0 at its current pace.
+		 * @return the time, in milliseconds, or infinity if it is not making progress.
+		 */
+		double eta(){
+			return rate > 0 ? best.getIntersectionCount() / rate : Double.POSITIVE_INFINITY;
+		}
+
+	}
+
+	// ------------------------- Statistics ------------------------------- //
+
+	/**
+	 * What a pipeline did over every race.
+	 */
+	private static final class Record {
+
+		final String name;
+		int runs, wins, solved, pruned, gaveUp, failed;
+		long nanos, sliceNanos;
+		long removed;
+
+		Record(String name){
+			this.name = name;
+		}
+
+	}
+
+}
@@ -0,0 +1,303 @@
+package polygon;
+
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * A uniform grid laid over the bounding box of a set of points, where every segment is stored in each cell it passes through.
+ * Only segments sharing a cell can cross, so finding all the k crossings of n segments spread over the plane costs about O(n + k)
+ * instead of testing every pair.
+ * Segments are given by the indices of their endpoints, and segments that share an endpoint are never reported,
+ * since in a path those are consecutive lines.
+ *
+ * @author Felipe Valverde
+ * @author Murilo Rosa
+ */
+class SegmentGrid {
+
+	private static final int CELLS_PER_TASK = 1 << 12;
+
+	private final PointSet points;
+	private final int minX, minY;
+	private final int cellSize;
+	private final int cols, rows;
+	private final IntList[] cells;
+	private final int[] segA, segB;
+	private final IntList covered = new IntList();
+
+	/**
+	 * Default constructor for the class SegmentGrid, sized so that there is about one cell per segment.
+	 * @param points The points the segments are drawn between.
+	 * @param capacity The number of segments, which are identified by the numbers from 0 to capacity-1.
+	 */
+	public SegmentGrid(PointSet points, int capacity){
+		this.points = points;
+		int loX = 0, loY = 0, hiX = 0, hiY = 0;
+		for(int i = 0; i < points.size(); i++) {
+			if(i == 0 || points.xs[i] < loX) loX = points.xs[i];
+			if(i == 0 || points.ys[i] < loY) loY = points.ys[i];
+			if(i == 0 || points.xs[i] > hiX) hiX = points.xs[i];
+			if(i == 0 || points.ys[i] > hiY) hiY = points.ys[i];
+		}
+		long width = (long)hiX - loX + 1, height = (long)hiY - loY + 1;
+		long side = (long)Math.ceil(Math.sqrt((double)width * height / Math.max(1, capacity)));
+		while(side < Integer.MAX_VALUE && ((width - 1) / side + 1) * ((height - 1) / side + 1) > 4L * capacity + 16)
+			side *= 2;
+
+		this.minX = loX;
+		this.minY = loY;
+		this.cellSize = (int)Math.max(1, Math.min(side, Integer.MAX_VALUE));
+		this.cols = (int)((width - 1) / cellSize + 1);
+		this.rows = (int)((height - 1) / cellSize + 1);
+		this.cells = new IntList[cols * rows];
+		this.segA = new int[capacity];
+		this.segB = new int[capacity];
+		Arrays.fill(segA, -1);
+	}
+
+	/**
+	 * Builds the grid of the lines of a closed path, where line i goes from the point at position i to the next one.
+	 * @param candidate The path whose lines are stored.
+	 * @return a grid holding every line of the candidate.
+	 */
+	public static SegmentGrid of(Candidate candidate){
+		int n = candidate.size();
+		SegmentGrid grid = new SegmentGrid(candidate.points, n);
+		for(int i = 0; i < n; i++)
+			grid.add(i, candidate.get(i), candidate.get((i+1) % n));
+		return grid;
+	}
+
+	// ------------------------- Getters ---------------------------------- //
+
+	/**
+	 * Getter for the first endpoint of a segment.
+	 * @param id The number that identifies the segment.
+	 * @return the index of the point, or -1 if there is no such segment.
+	 */
+	public int getA(int id){
+		return segA[id];
+	}
+
+	/**
+	 * Getter for the second endpoint of a segment.
+	 * @param id The number that identifies the segment.
+	 * @return the index of the point.
+	 */
+	public int getB(int id){
+		return segB[id];
+	}
+
+	// ------------------------- Updates ---------------------------------- //
+
+	/**
+	 * Stores a segment in every cell it passes through, replacing the segment that had the same id.
+	 * @param id The number that identifies the segment.
+	 * @param a The index of the first endpoint.
+	 * @param b The index of the second endpoint.
+	 */
+	public void add(int id, int a, int b){
+		remove(id);
+		segA[id] = a;
+		segB[id] = b;
+		covered.clear();
+		cellsOf(a, b, covered);
+		for(int i = 0; i < covered.size(); i++) {
+			int cell = covered.get(i);
+			if(cells[cell] == null)
+				cells[cell] = new IntList();
+			cells[cell].add(id);
+		}
+	}
+
+	/**
+	 * Takes a segment out of every cell it was stored in.
+	 * @param id The number that identifies the segment.
+	 */
+	public void remove(int id){
+		if(segA[id] == -1)
+			return;
+		covered.clear();
+		cellsOf(segA[id], segB[id], covered);
+		for(int i = 0; i < covered.size(); i++)
+			cells[covered.get(i)].removeValue(id);
+		segA[id] = -1;
+	}
+
+	// ------------------------- Queries ---------------------------------- //
+
+	/**
+	 * Finds every pair of stored segments that intersect and do not share an endpoint.
+	 * @return the pairs, each packed as (smaller id &lt;&lt; 32 | larger id), sorted and without repetitions.
+	 */
+	public long[] crossings(){
+		return crossings(null);
+	}
+
+	/**
+	 * Finds every pair of stored segments that intersect and do not share an endpoint, splitting the cells among the
+	 * threads of a pool. The grid must not be changed while this runs.
+	 * @param pool The pool that tests the cells, or null to test them all in this thread.
+	 * @return the pairs, each packed as (smaller id &lt;&lt; 32 | larger id), sorted and without repetitions.
+	 */
+	public long[] crossings(ForkJoinPool pool){
+		CellScan scan = new CellScan(0, cells.length);
+		LongList found = pool == null || cells.length <= CELLS_PER_TASK ? scan.compute() : pool.invoke(scan);
+		long[] sorted = found.toArray();
+		Arrays.sort(sorted);
+		int unique = 0;
+		for(int i = 0; i < sorted.length; i++)
+			if(unique == 0 || sorted[unique-1] != sorted[i])
+				sorted[unique++] = sorted[i];
+		return Arrays.copyOf(sorted, unique);
+	}
+
+	/**
+	 * Tests the pairs of segments inside a range of cells, halving the range until it is small enough for one task when running in a pool.
+	 */
+	@SuppressWarnings("serial")		// a task is never serialized
+	private class CellScan extends RecursiveTask<LongList> {
+		private final int from, to;
+
+		CellScan(int from, int to){
+			this.from = from;
+			this.to = to;
+		}
+
+		@Override
+		protected LongList compute(){
+			if(to - from > CELLS_PER_TASK && inForkJoinPool()) {
+				int mid = (from + to) >>> 1;
+				CellScan left = new CellScan(from, mid);
+				left.fork();
+				LongList right = new CellScan(mid, to).compute();
+				return left.join().addAll(right);
+			}
+			LongList found = new LongList();
+			for(int c = from; c < to; c++) {
+				IntList cell = cells[c];
+				if(cell == null)
+					continue;
+				for(int i = 0; i < cell.size(); i++) {
+					int s = cell.get(i);
+					for(int j = i+1; j < cell.size(); j++) {
+						int t = cell.get(j);
+						if(intersect(s, segA[t], segB[t]))
+							found.add(((long)Math.min(s, t) << 32) | Math.max(s, t));
+					}
+				}
+			}
+			return found;
+		}
+	}
+
+	/**
+	 * Finds every stored segment that intersects the segment ab and does not share an endpoint with it.
+	 * @param a The index of the first endpoint.
+	 * @param b The index of the second endpoint.
+	 * @param hits Receives the ids of the segments found, sorted and without repetitions.
+	 * @param scratch Space used to hold the cells covered by ab.
+	 */
+	public void query(int a, int b, IntList hits, IntList scratch){
+		hits.clear();
+		scratch.clear();
+		cellsOf(a, b, scratch);
+		for(int i = 0; i < scratch.size(); i++) {
+			IntList cell = cells[scratch.get(i)];
+			if(cell == null)
+				continue;
+			for(int j = 0; j < cell.size(); j++)
+				hits.add(cell.get(j));
+		}
+		hits.sortUnique();
+		int kept = 0;
+		for(int i = 0; i < hits.size(); i++) {
+			int id = hits.get(i);
+			if(intersect(id, a, b))
+				hits.set(kept++, id);
+		}
+		hits.truncate(kept);
+	}
+
+	/**
+	 * Checks if a stored segment intersects the segment ab, ignoring segments which share an endpoint.
+	 * @param id The stored segment.
+	 * @param a The index of the first endpoint.
+	 * @param b The index of the second endpoint.
+	 * @return true if both segments intersect.
+	 */
+	private boolean intersect(int id, int a, int b){
+		int c = segA[id], d = segB[id];
+		if(a == c || a == d || b == c || b == d)
+			return false;
+		int[] xs = points.xs, ys = points.ys;
+		return Geometry.segmentsIntersect(xs[a], ys[a], xs[b], ys[b], xs[c], ys[c], xs[d], ys[d]);
+	}
+
+	// ------------------------- Cells ------------------------------------ //
+
+	/**
+	 * Lists the cells the segment ab passes through.
+	 * Walks column by column and takes the rows covered by the part of the segment inside each column, rounding outwards,
+	 * so the list may contain a few more cells than needed but never misses one.
+	 * @param a The index of the first endpoint.
+	 * @param b The index of the second endpoint.
+	 * @param out Receives the cells.
+	 */
+	private void cellsOf(int a, int b, IntList out){
+		long x0 = points.xs[a], y0 = points.ys[a], x1 = points.xs[b], y1 = points.ys[b];
+		if(x0 > x1) {
+			long swap = x0; x0 = x1; x1 = swap;
+			swap = y0; y0 = y1; y1 = swap;
+		}
+		long dx = x1 - x0, dy = y1 - y0;
+		int c0 = column(x0), c1 = column(x1);
+		for(int c = c0; c <= c1; c++) {
+			long yLo, yHi;
+			if(dx == 0) {
+				yLo = Math.min(y0, y1);
+				yHi = Math.max(y0, y1);
+			}
+			else {
+				long xl = Math.max(x0, (long)minX + (long)c * cellSize);
+				long xr = Math.min(x1, (long)minX + (long)(c+1) * cellSize);
+				yLo = y0 + Math.min(rise(xl - x0, dy, dx, false), rise(xr - x0, dy, dx, false));
+				yHi = y0 + Math.max(rise(xl - x0, dy, dx, true), rise(xr - x0, dy, dx, true));
+			}
+			int r0 = row(yLo), r1 = row(yHi);
+			for(int r = r0; r <= r1; r++)
+				out.add(r * cols + c);
+		}
+	}
+
+	/**
+	 * Finds how much the segment rises over a run of t, that is t * dy / dx rounded down or up.
+	 * The product t * dy no longer fits in a long when both spans approach 2^32, so in that case dy is split into
+	 * q * dx + r, which leaves t * q within dy and t * r below dx^2 < 2^64 as an unsigned long.
+	 * @param t The run, between 0 and dx.
+	 * @param dy The rise of the whole segment.
+	 * @param dx The run of the whole segment, positive.
+	 * @param up Whether to round up instead of down.
+	 * @return the rounded rise.
+	 */
+	private static long rise(long t, long dy, long dx, boolean up){
+		if((dx | Math.abs(dy)) < (1L << 31)) {
+			long n = t * dy;
+			return up ? -Math.floorDiv(-n, dx) : Math.floorDiv(n, dx);
+		}
+		long q = Math.floorDiv(dy, dx), r = Math.floorMod(dy, dx);
+		long n = t * r;
+		long rise = t * q + Long.divideUnsigned(n, dx);
+		return up && Long.remainderUnsigned(n, dx) != 0 ? rise + 1 : rise;
+	}
+
+	private int column(long x){
+		return (int)Math.max(0, Math.min(cols - 1, (x - minX) / cellSize));
+	}
+
+	private int row(long y){
+		return (int)Math.max(0, Math.min(rows - 1, (y - minY) / cellSize));
+	}
+
+}
@@ -0,0 +1,105 @@
+package polygon;
+
+/**
+ * A value for every candidate segment of a set of points, such as the pheromone left by the ants.
+ * Each point only keeps the segments that go to its k nearest neighbours, so the whole map takes O(n * k) memory;
+ * the value of the segment to the s-th neighbour of point a is at position a * k + s of one flat array.
+ * Any other segment is worth 0 and cannot be given a value.
+ *
+ * @author Felipe Valverde
+ * @author Murilo Rosa
+ */
+class SegmentMap {
+
+	private final int k;
+	private final int[] neighbours;
+	private final double[] values;
+
+	/**
+	 * Default constructor for the class SegmentMap.
+	 * @param neighbours The neighbours of every point, the s-th neighbour of point a at position a * k + s.
+	 * @param k The number of neighbours of each point.
+	 */
+	SegmentMap(int[] neighbours, int k){
+		this.k = k;
+		this.neighbours = neighbours;
+		this.values = new double[neighbours.length];
+	}
+
+	/**
+	 * Getter for the value of a segment.
+	 * @param a The point the segment starts at.
+	 * @param b The point the segment ends at.
+	 * @return the value of the segment, or 0 if b is not one of the neighbours of a.
+	 */
+	public double get(int a, int b){
+		int slot = slot(a, b);
+		return slot == -1 ? 0 : values[slot];
+	}
+
+	/**
+	 * Getter for the value of the segment from a point to one of its neighbours.
+	 * @param a The point the segment starts at.
+	 * @param s The position of the neighbour in the list of a.
+	 * @return the value of the segment.
+	 */
+	public double getSlot(int a, int s){
+		return values[a * k + s];
+	}
+
+	/**
+	 * Setter for the value of a segment, which is ignored if b is not one of the neighbours of a.
+	 * @param a The point the segment starts at.
+	 * @param b The point the segment ends at.
+	 * @param value The new value.
+	 */
+	public void put(int a, int b, double value){
+		int slot = slot(a, b);
+		if(slot != -1)
+			values[slot] = value;
+	}
+
+	/**
+	 * Adds to the value of a segment, which is ignored if b is not one of the neighbours of a.
+	 * @param a The point the segment starts at.
+	 * @param b The point the segment ends at.
+	 * @param amount How much is added.
+	 */
+	public void add(int a, int b, double amount){
+		int slot = slot(a, b);
+		if(slot != -1)
+			values[slot] += amount;
+	}
+
+	/**
+	 * Multiplies every value by the same factor.
+	 * @param factor The factor.
+	 */
+	public void scale(double factor){
+		for(int i = 0; i < values.length; i++)
+			values[i] *= factor;
+	}
+
+	/**
+	 * Multiplies the values of every segment leaving one point by the same factor.
+	 * Different points use different parts of the array, so separate threads can scale separate points.
+	 * @param a The point the segments start at.
+	 * @param factor The factor.
+	 */
+	public void scaleRow(int a, double factor){
+		for(int i = a * k; i < (a + 1) * k; i++)
+			values[i] *= factor;
+	}
+
+	/**
+	 * Finds where the segment from a to b is kept.
+	 * @return the position in the array, or -1 if b is not one of the neighbours of a.
+	 */
+	private int slot(int a, int b){
+		for(int i = a * k; i < (a + 1) * k; i++)
+			if(neighbours[i] == b)
+				return i;
+		return -1;
+	}
+
+}
@@ -0,0 +1,239 @@
+package polygon;
+
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Finds a simple polygon through a set of points without any interaction, using the same choices as the menus of Main:
+ * a way of building the first candidate, and a strategy to improve it until no intersections are left.
+ * A solver only keeps its settings, so one solver may be used for many point sets, and separate solvers may run at the
+ * same time in separate threads.
+ *
+ * @author Felipe Valverde
+ * @author Murilo Rosa
+ */
+class Solver {
+
+	public static final byte RANDOM_PERMUTATION = 1;
+	public static final byte NEAREST_NEIGHBOUR = 2;
+	public static final byte ANT_COLONY = 3;
+	public static final byte MULTI_START = 4;
+	public static final byte STAR_SHAPED = Candidate.STAR_SHAPED;
+	public static final byte X_MONOTONE = Candidate.X_MONOTONE;
+	public static final byte SPACE_PARTITIONING = Candidate.SPACE_PARTITIONING;
+
+	public static final byte NONE = 0;
+	public static final byte BEST_IMPROVEMENT = 1;
+	public static final byte FIRST_IMPROVEMENT = 2;
+	public static final byte LESS_CONFLICTS = 3;
+	public static final byte ANYONE = 4;
+	public static final byte ANNEALING = 5;
+	public static final byte UNTANGLING = 6;
+	public static final byte LOCAL_SEARCH = 7;
+
+	private byte generator;
+	private byte strategy;
+	private long seed;
+	private long budget;
+	private int ants;
+	private int starts;
+	private long iterations;
+	private int tabuTenure;
+	private ForkJoinPool pool;
+
+	/**
+	 * Default constructor for the class Solver: nearest neighbour, then less-conflicts, with no time limit.
+	 */
+	public Solver(){
+		generator = NEAREST_NEIGHBOUR;
+		strategy = LESS_CONFLICTS;
+		seed = 0;
+		budget = Long.MAX_VALUE;
+		ants = 10;
+		starts = 2 * Runtime.getRuntime().availableProcessors();
+		iterations = 10000;
+		tabuTenure = TabuList.DEFAULT_TENURE;
+		pool = ForkJoinPool.commonPool();
+	}
+
+	// ------------------------- Setters ---------------------------------- //
+
+	/**
+	 * Setter for how the first candidate is built.
+	 * @param generator RANDOM_PERMUTATION, NEAREST_NEIGHBOUR, ANT_COLONY, MULTI_START, or STAR_SHAPED, X_MONOTONE and
+	 * SPACE_PARTITIONING, which are already simple polygons.
+	 */
+	public void setGenerator(byte generator){
+		if(generator < RANDOM_PERMUTATION || generator > SPACE_PARTITIONING)
+			throw new IllegalArgumentException("Unknown generator " + generator);
+		this.generator = generator;
+	}
+
+	/**
+	 * Setter for how the candidate is improved.
+	 * @param strategy BEST_IMPROVEMENT, FIRST_IMPROVEMENT, LESS_CONFLICTS, ANYONE, ANNEALING, UNTANGLING or
+	 * LOCAL_SEARCH, or NONE to keep the first candidate.
+	 */
+	public void setStrategy(byte strategy){
+		if(strategy < NONE || strategy > LOCAL_SEARCH)
+			throw new IllegalArgumentException("Unknown strategy " + strategy);
+		this.strategy = strategy;
+	}
+
+	/**
+	 * Setter for the seed every random choice is drawn from.
+	 * @param seed The seed.
+	 */
+	public void setSeed(long seed){
+		this.seed = seed;
+	}
+
+	/**
+	 * Setter for the wall-clock budget of one solve.
+	 * @param budget The time, in milliseconds, after which the best candidate so far is returned.
+	 */
+	public void setBudget(long budget){
+		this.budget = budget;
+	}
+
+	/**
+	 * Setter for the number of ants sent out by the ant colony.
+	 * @param ants The number of ants.
+	 */
+	public void setAnts(int ants){
+		this.ants = ants;
+	}
+
+	/**
+	 * Setter for the number of starts of the multi-start generator.
+	 * @param starts The number of starts.
+	 */
+	public void setStarts(int starts){
+		this.starts = starts;
+	}
+
+	/**
+	 * Setter for the number of moves proposed by simulated annealing.
+	 * @param iterations The number of proposals.
+	 */
+	public void setIterations(long iterations){
+		this.iterations = iterations;
+	}
+
+	/**
+	 * Setter for how many of its last candidates the improvement may not go back to.
+	 * @param tabuTenure The length of the tabu list.
+	 */
+	public void setTabuTenure(int tabuTenure){
+		this.tabuTenure = tabuTenure;
+	}
+
+	/**
+	 * Setter for the pool the ants walk on and the neighbours are searched in.
+	 * @param pool The pool, or null to do everything in the calling thread.
+	 */
+	public void setPool(ForkJoinPool pool){
+		this.pool = pool;
+	}
+
+	// ------------------------- Solving ---------------------------------- //
+
+	/**
+	 * Builds a candidate and improves it until it has no intersections, the strategy gives up, or the budget runs out.
+	 * @param points The points of the polygon.
+	 * @return the candidate with the fewest intersections reached, which is a simple polygon if its intersection count is 0.
+	 * @throws InterruptedException if the thread is interrupted while a multi-start runs.
+	 */
+	public Candidate solve(PointSet points) throws InterruptedException {
+		long deadline = budget == Long.MAX_VALUE ? Long.MAX_VALUE : System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(budget);
+		Random random = new Random(seed);
+		long start = Stats.start();
+		Candidate result = build(points, random, deadline);
+		result.setPool(pool);
+		Stats.stop(Stats.Phase.CONSTRUCTION, start, points.size());
+		if(strategy == NONE || result.isSimple())
+			return result;
+
+		start = Stats.start();
+		result = repair(result, random, deadline);
+		Stats.stop(Stats.Phase.REPAIR, start, points.size());
+		return result;
+	}
+
+	/**
+	 * Improves a candidate until it has no intersections, the strategy gives up, or the deadline passes.
+	 */
+	private Candidate repair(Candidate result, Random random, long deadline){
+		if(strategy == ANNEALING) {
+			Annealer annealer = new Annealer(result, random.nextLong());
+			annealer.setBudget(remaining(deadline));
+			result = annealer.run(iterations);
+		}
+		else if(strategy == UNTANGLING)
+			result = new Untangler(result).run(100 * result.size());
+		else if(strategy == LOCAL_SEARCH)
+			result = new LocalSearch(result).run(100 * result.size());
+		return improve(result, random, deadline);
+	}
+
+	/**
+	 * Walks from a candidate with the improvement moves of the strategy, avoiding the candidates in a tabu list, until
+	 * it has no intersections, every way out is tabu, the step limit is reached or the deadline passes.
+	 * Annealing, untangling and local search take less-conflicts moves here.
+	 * @param start The candidate to start from.
+	 * @param random Where the random moves are drawn from.
+	 * @param deadline The System.nanoTime() after which the walk stops.
+	 * @return the candidate with the fewest intersections seen.
+	 */
+	Candidate improve(Candidate start, Random random, long deadline){
+		if(strategy == NONE)
+			return start;
+		byte strategy = this.strategy >= ANNEALING ? LESS_CONFLICTS : this.strategy;		// as in Main, whatever is left is found by less conflicting
+		int maxSteps = 10 * start.size() + 100;		// some strategies can walk in circles
+		TabuList tabu = new TabuList(tabuTenure);
+		tabu.add(start.getTourHash());
+		Candidate result = start, best = start;
+		for(int step = 0; step < maxSteps && result.getIntersectionCount() != 0 && System.nanoTime() < deadline; step++) {
+			Candidate next = result.improve(strategy, tabu, random);
+			if(next == null)
+				break;		// every way out is tabu
+			result = next;
+			Stats.count(Stats.Counter.MOVES_ACCEPTED);
+			tabu.add(result.getTourHash());
+			if(result.getIntersectionCount() < best.getIntersectionCount())
+				best = result;		// the tabu list may push the walk uphill, so the best candidate is kept apart
+		}
+		return best;
+	}
+
+	/**
+	 * Builds the first candidate.
+	 */
+	private Candidate build(PointSet points, Random random, long deadline) throws InterruptedException {
+		switch(generator) {
+			case ANT_COLONY:
+				AntColony colony = new AntColony(points, random.nextLong());
+				colony.setPool(pool);
+				return colony.run(ants, () -> System.nanoTime() >= deadline);
+			case MULTI_START:
+				MultiStart engine = new MultiStart(points, random.nextLong());
+				engine.setStarts(starts);
+				engine.setBudget(remaining(deadline));
+				Candidate best = engine.run();
+				return best != null ? best : new Candidate(points, NEAREST_NEIGHBOUR, random);		// no start finished building
+			default:
+				return new Candidate(points, generator, random);
+		}
+	}
+
+	/**
+	 * Finds how many milliseconds are left until a deadline.
+	 */
+	private static long remaining(long deadline){
+		if(deadline == Long.MAX_VALUE)
+			return Long.MAX_VALUE;
+		return Math.max(0, TimeUnit.NANOSECONDS.toMillis(deadline - System.nanoTime()));
+	}
+
+}
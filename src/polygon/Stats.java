@@ -0,0 +1,227 @@
+package polygon;
+
+import java.util.Locale;
+import java.util.concurrent.atomic.LongAdder;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.FlightRecorder;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.Period;
+import jdk.jfr.Timespan;
+
+/**
+ * Counters and phase timers of the hot paths, switched on with -Dpolygon.stats=true.
+ * ENABLED is a static final constant, so when it is false every call below is folded away by the JIT compiler and the
+ * hot paths pay nothing for being counted. When it is true the counters are LongAdders, so threads counting at the same
+ * time do not fight over one cache line, and the numbers are also sent to Java Flight Recorder as polygon.Counters
+ * (once a second) and polygon.Phase (once per phase) events.
+ *
+ * @author Felipe Valverde
+ * @author Murilo Rosa
+ */
+final class Stats {
+
+	static final boolean ENABLED = Boolean.getBoolean("polygon.stats");
+
+	/**
+	 * What is counted.
+	 */
+	enum Counter {
+		INTERSECTION_TESTS("intersectionTests"),
+		CANDIDATES("candidates"),
+		NEIGHBOURS("neighbours"),
+		MOVES_ACCEPTED("movesAccepted");
+
+		final String key;
+
+		Counter(String key){
+			this.key = key;
+		}
+	}
+
+	/**
+	 * What is timed.
+	 */
+	enum Phase {
+		GENERATION("generation"),
+		CONSTRUCTION("construction"),
+		REPAIR("repair");
+
+		final String key;
+
+		Phase(String key){
+			this.key = key;
+		}
+	}
+
+	private static final LongAdder[] counts = adders(Counter.values().length);
+	private static final LongAdder[] phaseNanos = adders(Phase.values().length);
+	private static final LongAdder[] phaseRuns = adders(Phase.values().length);
+
+	static {
+		if(ENABLED)
+			FlightRecorder.addPeriodicEvent(CountersEvent.class, Stats::emitCounters);
+	}
+
+	private Stats(){
+	}
+
+	// ------------------------- Counting ---------------------------------- //
+
+	/**
+	 * Adds one to a counter.
+	 * @param counter The counter.
+	 */
+	static void count(Counter counter){
+		if(ENABLED)
+			counts[counter.ordinal()].increment();
+	}
+
+	/**
+	 * Adds to a counter.
+	 * @param counter The counter.
+	 * @param amount How much is added.
+	 */
+	static void count(Counter counter, long amount){
+		if(ENABLED)
+			counts[counter.ordinal()].add(amount);
+	}
+
+	/**
+	 * Getter for the value of a counter.
+	 * @param counter The counter.
+	 * @return the sum of everything counted so far.
+	 */
+	static long get(Counter counter){
+		return counts[counter.ordinal()].sum();
+	}
+
+	// ------------------------- Timing ---------------------------------- //
+
+	/**
+	 * Starts timing a phase.
+	 * @return the start, to be handed to stop.
+	 */
+	static long start(){
+		return ENABLED ? System.nanoTime() : 0;
+	}
+
+	/**
+	 * Stops timing a phase, adding its time to the totals and recording a polygon.Phase event.
+	 * @param phase The phase.
+	 * @param start What start returned when the phase began.
+	 * @param points The number of points the phase worked on.
+	 */
+	static void stop(Phase phase, long start, int points){
+		if(!ENABLED)
+			return;
+		long elapsed = System.nanoTime() - start;
+		phaseNanos[phase.ordinal()].add(elapsed);
+		phaseRuns[phase.ordinal()].increment();
+
+		PhaseEvent event = new PhaseEvent();
+		if(event.shouldCommit()) {
+			event.phase = phase.key;
+			event.points = points;
+			event.elapsed = elapsed;
+			event.commit();
+		}
+	}
+
+	/**
+	 * Getter for the time spent in a phase.
+	 * @param phase The phase.
+	 * @return the total time of every run of the phase so far, in nanoseconds.
+	 */
+	static long getNanos(Phase phase){
+		return phaseNanos[phase.ordinal()].sum();
+	}
+
+	// ------------------------- Reporting ---------------------------------- //
+
+	/**
+	 * Writes every counter and phase total as one line of JSON, such as
+	 * {"intersectionTests":120,...,"generationMs":1.25,"generationRuns":1,...}.
+	 * @return the line.
+	 */
+	static String summary(){
+		StringBuilder line = new StringBuilder("{");
+		for(Counter counter : Counter.values())
+			line.append('"').append(counter.key).append("\":").append(get(counter)).append(',');
+		for(Phase phase : Phase.values()) {
+			line.append('"').append(phase.key).append("Ms\":").append(String.format(Locale.ROOT, "%.3f", getNanos(phase) / 1e6)).append(',');
+			line.append('"').append(phase.key).append("Runs\":").append(phaseRuns[phase.ordinal()].sum()).append(',');
+		}
+		line.setCharAt(line.length() - 1, '}');
+		return line.toString();
+	}
+
+	/**
+	 * Sets every counter and phase total back to 0.
+	 */
+	static void reset(){
+		for(LongAdder adder : counts)
+			adder.reset();
+		for(int i = 0; i < phaseNanos.length; i++) {
+			phaseNanos[i].reset();
+			phaseRuns[i].reset();
+		}
+	}
+
+	private static LongAdder[] adders(int size){
+		LongAdder[] adders = new LongAdder[size];
+		for(int i = 0; i < size; i++)
+			adders[i] = new LongAdder();
+		return adders;
+	}
+
+	private static void emitCounters(){
+		CountersEvent event = new CountersEvent();
+		event.intersectionTests = get(Counter.INTERSECTION_TESTS);
+		event.candidates = get(Counter.CANDIDATES);
+		event.neighbours = get(Counter.NEIGHBOURS);
+		event.movesAccepted = get(Counter.MOVES_ACCEPTED);
+		event.commit();
+	}
+
+	// ------------------------- Events ---------------------------------- //
+
+	@Name("polygon.Phase")
+	@Label("Polygon Phase")
+	@Category("Polygon")
+	@Description("One run of generating points, building a candidate or repairing it")
+	static class PhaseEvent extends Event {
+		@Label("Phase")
+		String phase;
+
+		@Label("Points")
+		int points;
+
+		@Label("Elapsed")
+		@Timespan(Timespan.NANOSECONDS)
+		long elapsed;
+	}
+
+	@Name("polygon.Counters")
+	@Label("Polygon Counters")
+	@Category("Polygon")
+	@Description("Totals of the hot-path counters so far")
+	@Period("1 s")
+	static class CountersEvent extends Event {
+		@Label("Intersection Tests")
+		long intersectionTests;
+
+		@Label("Candidates")
+		long candidates;
+
+		@Label("Neighbours")
+		long neighbours;
+
+		@Label("Moves Accepted")
+		long movesAccepted;
+	}
+
+}
@@ -0,0 +1,142 @@
+package polygon;
+
+/**
+ * Evaluates the two-exchange moves of a candidate without building the resulting candidates.
+ * Swapping the points at two positions only changes the (at most four) lines that touch them, so the change in the number
+ * of crossings is found by testing those lines, before and after the swap, against the grid of the unchanged ones.
+ * An evaluator keeps its working space in fields, so each thread needs its own copy.
+ *
+ * @author Felipe Valverde
+ * @author Murilo Rosa
+ */
+class SwapEvaluator {
+
+	private final Candidate candidate;
+	private final SegmentGrid grid;
+	private final int[] changed = new int[4];
+	private final IntList hits = new IntList();
+	private final IntList scratch = new IntList();
+
+	/**
+	 * Default constructor for the class SwapEvaluator.
+	 * @param candidate The candidate whose moves are evaluated.
+	 * @param grid The grid holding the lines of the candidate, where line i goes from position i to the next one.
+	 */
+	public SwapEvaluator(Candidate candidate, SegmentGrid grid){
+		this.candidate = candidate;
+		this.grid = grid;
+	}
+
+	/**
+	 * Makes an evaluator for the same candidate and grid with its own working space, for use in another thread.
+	 * @return the new evaluator.
+	 */
+	public SwapEvaluator copy(){
+		return new SwapEvaluator(candidate, grid);
+	}
+
+	/**
+	 * Finds how the number of intersections changes when the points at two positions are exchanged.
+	 * @param p The position of the first point.
+	 * @param q The position of the second point.
+	 * @return the number of intersections after the exchange minus the number before it.
+	 */
+	public int crossingDelta(int p, int q){
+		if(p == q)
+			return 0;
+		int count = findChanged(p, q);
+		return countCrossings(count, p, q) - countCrossings(count, -1, -1);
+	}
+
+	/**
+	 * Finds how the perimeter changes when the points at two positions are exchanged.
+	 * @param p The position of the first point.
+	 * @param q The position of the second point.
+	 * @return the perimeter after the exchange minus the perimeter before it.
+	 */
+	public long perimeterDelta(int p, int q){
+		if(p == q)
+			return 0;
+		int n = candidate.size();
+		int count = findChanged(p, q);
+		long delta = 0;
+		for(int k = 0; k < count; k++) {
+			int next = (changed[k] + 1) % n;
+			delta += candidate.euclidianDistance(pointAt(changed[k], p, q), pointAt(next, p, q))
+				- candidate.euclidianDistance(candidate.get(changed[k]), candidate.get(next));
+		}
+		return delta;
+	}
+
+	/**
+	 * Lists the lines that touch the points at two positions.
+	 * @param p The position of the first point.
+	 * @param q The position of the second point.
+	 * @return how many different lines were listed.
+	 */
+	private int findChanged(int p, int q){
+		int n = candidate.size();
+		int count = addChanged((p - 1 + n) % n, 0);
+		count = addChanged(p, count);
+		count = addChanged((q - 1 + n) % n, count);
+		return addChanged(q, count);
+	}
+
+	/**
+	 * Counts the intersections that involve at least one of the changed lines.
+	 * @param count How many changed lines there are.
+	 * @param p The position of the first exchanged point, or -1 to count before the exchange.
+	 * @param q The position of the second exchanged point, or -1 to count before the exchange.
+	 * @return the number of crossings with a changed line.
+	 */
+	private int countCrossings(int count, int p, int q){
+		int n = candidate.size();
+		int[] xs = candidate.points.xs, ys = candidate.points.ys;
+		int crossings = 0;
+		for(int k = 0; k < count; k++) {
+			int a = pointAt(changed[k], p, q), b = pointAt((changed[k] + 1) % n, p, q);
+			grid.query(a, b, hits, scratch);
+			for(int h = 0; h < hits.size(); h++)
+				if(!isChanged(hits.get(h), count))
+					crossings++;
+			for(int l = k+1; l < count; l++) {
+				int c = pointAt(changed[l], p, q), d = pointAt((changed[l] + 1) % n, p, q);
+				if(a == c || a == d || b == c || b == d)
+					continue;
+				if(Geometry.segmentsIntersect(xs[a], ys[a], xs[b], ys[b], xs[c], ys[c], xs[d], ys[d]))
+					crossings++;
+			}
+		}
+		return crossings;
+	}
+
+	/**
+	 * Finds which point is at a given position, as if the points at p and q were exchanged.
+	 * @param pos The position in the path.
+	 * @param p The position of the first exchanged point.
+	 * @param q The position of the second exchanged point.
+	 * @return the index of the point.
+	 */
+	private int pointAt(int pos, int p, int q){
+		if(pos == p)
+			return candidate.get(q);
+		if(pos == q)
+			return candidate.get(p);
+		return candidate.get(pos);
+	}
+
+	private int addChanged(int line, int count){
+		if(isChanged(line, count))
+			return count;
+		changed[count] = line;
+		return count + 1;
+	}
+
+	private boolean isChanged(int line, int count){
+		for(int k = 0; k < count; k++)
+			if(changed[k] == line)
+				return true;
+		return false;
+	}
+
+}
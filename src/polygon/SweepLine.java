@@ -0,0 +1,249 @@
+package polygon;
+
+/**
+ * The Shamos-Hoey sweep: a vertical line goes over the points from left to right, keeping the lines of the path it
+ * currently cuts in order from bottom to top. If any two lines intersect, some intersecting pair becomes neighbours in
+ * that order before the sweep gets past the leftmost intersection, so only neighbours are ever tested, and the sweep
+ * stops at the first pair found. Knowing whether a path is simple costs O(n log n), whatever the number of crossings.
+ * Lines are the same as in SegmentGrid: line i goes from position i to the next one, touching counts as intersecting,
+ * and consecutive lines are never tested against each other.
+ * The order is kept in a treap whose nodes are the lines themselves, also threaded in order through prev and next, so
+ * that finding the neighbours of a line costs nothing and taking a line out needs no comparisons at all.
+ *
+ * @author Felipe Valverde
+ * @author Murilo Rosa
+ */
+final class SweepLine {
+
+	private final int[] xs, ys;
+	private final int[] left, right;
+	private final int n;
+
+	private final int[] below, above, parent, priority;		// the treap
+	private final int[] prev, next;		// the same lines in order
+	private int root = -1;
+
+	private SweepLine(Candidate candidate){
+		this.xs = candidate.points.xs;
+		this.ys = candidate.points.ys;
+		this.n = candidate.size();
+		this.left = new int[n];
+		this.right = new int[n];
+		for(int i = 0; i < n; i++) {
+			int a = candidate.get(i), b = candidate.get(i + 1 < n ? i + 1 : 0);
+			boolean forward = before(a, b);
+			left[i] = forward ? a : b;
+			right[i] = forward ? b : a;
+		}
+		below = new int[n];
+		above = new int[n];
+		parent = new int[n];
+		priority = new int[n];
+		prev = new int[n];
+		next = new int[n];
+		for(int i = 0; i < n; i++) {
+			int mix = i * 0x9E3779B9;
+			priority[i] = mix ^ (mix >>> 16);
+		}
+	}
+
+	/**
+	 * Finds a pair of lines of a closed path that intersect.
+	 * @param candidate The path, which must not visit a point twice.
+	 * @return the pair (i, j), with i &lt; j, packed as (i &lt;&lt; 32 | j), or -1 if the path is a simple polygon.
+	 */
+	static long firstCrossing(Candidate candidate) {
+		if(candidate.size() < 4)
+			return -1;		// in a triangle every line follows the other two
+		return new SweepLine(candidate).sweep(candidate);
+	}
+
+	private long sweep(Candidate candidate) {
+		int[] position = new int[candidate.points.size()];
+		for(int i = 0; i < n; i++)
+			position[candidate.get(i)] = i;
+
+		for(int p : candidate.points.sortedByX()) {
+			int k = position[p];
+			int in = k == 0 ? n - 1 : k - 1, out = k;		// the lines arriving at and leaving from p
+			// lines ending at p leave before the ones starting at p come in, so consecutive lines never meet here
+			for(int line = in; ; line = out) {
+				if(right[line] == p) {
+					int up = next[line], down = prev[line];
+					remove(line);
+					long found = up != -1 && down != -1 ? test(down, true) : -1;
+					if(found == -1 && up != -1 && down != -1)
+						found = test(up, false);
+					if(found != -1)
+						return found;
+				}
+				if(line == out)
+					break;
+			}
+			for(int line = in; ; line = out) {
+				if(left[line] == p) {
+					insert(line);
+					long found = test(line, true);
+					if(found == -1)
+						found = test(line, false);
+					if(found != -1)
+						return found;
+				}
+				if(line == out)
+					break;
+			}
+		}
+		return -1;
+	}
+
+	/**
+	 * Tests a line against its nearest neighbour above or below it that does not follow it in the path.
+	 * Consecutive lines may lie on top of each other (when the path turns back on itself), and then they can hide
+	 * a crossing from the sweep, so the (at most two) of them next to the line are looked past.
+	 * @return the pair found, or -1.
+	 */
+	private long test(int line, boolean up) {
+		int other = up ? next[line] : prev[line];
+		while(other != -1 && consecutive(line, other))
+			other = up ? next[other] : prev[other];
+		return other != -1 && intersect(line, other) ? pack(line, other) : -1;
+	}
+
+	// ------------------------- Treap ---------------------------------- //
+
+	/**
+	 * Puts a line in its place in the order, then rotates it up while its priority is higher than its parent's.
+	 */
+	private void insert(int line) {
+		int at = -1, node = root;
+		boolean higher = false;
+		while(node != -1) {
+			at = node;
+			higher = compare(line, node) > 0;
+			node = higher ? above[node] : below[node];
+		}
+		below[line] = above[line] = -1;
+		parent[line] = at;
+		if(at == -1) {
+			root = line;
+			prev[line] = next[line] = -1;
+		}
+		else if(higher) {		// a new child above its parent comes right after it
+			above[at] = line;
+			prev[line] = at;
+			next[line] = next[at];
+			if(next[at] != -1)
+				prev[next[at]] = line;
+			next[at] = line;
+		}
+		else {
+			below[at] = line;
+			next[line] = at;
+			prev[line] = prev[at];
+			if(prev[at] != -1)
+				next[prev[at]] = line;
+			prev[at] = line;
+		}
+		while(parent[line] != -1 && priority[parent[line]] < priority[line])
+			rotateUp(line);
+	}
+
+	/**
+	 * Rotates a line down until it is a leaf, and cuts it off.
+	 */
+	private void remove(int line) {
+		while(below[line] != -1 || above[line] != -1) {
+			int child = below[line] == -1 ? above[line]
+				: above[line] == -1 ? below[line]
+				: priority[below[line]] > priority[above[line]] ? below[line] : above[line];
+			rotateUp(child);
+		}
+		int at = parent[line];
+		if(at == -1)
+			root = -1;
+		else if(below[at] == line)
+			below[at] = -1;
+		else
+			above[at] = -1;
+		if(prev[line] != -1)
+			next[prev[line]] = next[line];
+		if(next[line] != -1)
+			prev[next[line]] = prev[line];
+	}
+
+	private void rotateUp(int node) {
+		int at = parent[node], grand = parent[at];
+		if(below[at] == node) {
+			below[at] = above[node];
+			if(above[node] != -1)
+				parent[above[node]] = at;
+			above[node] = at;
+		}
+		else {
+			above[at] = below[node];
+			if(below[node] != -1)
+				parent[below[node]] = at;
+			below[node] = at;
+		}
+		parent[at] = node;
+		parent[node] = grand;
+		if(grand == -1)
+			root = node;
+		else if(below[grand] == at)
+			below[grand] = node;
+		else
+			above[grand] = node;
+	}
+
+	// ------------------------- Order ---------------------------------- //
+
+	/**
+	 * Orders two lines cut by the sweep from bottom to top. While no lines cross, their order is the same wherever the
+	 * sweep cuts both, so it is found at the left end of the one that starts later: above or below the other line.
+	 */
+	private int compare(int s, int t) {
+		if(s == t)
+			return 0;
+		if(before(left[t], left[s]))
+			return side(t, s);
+		if(before(left[s], left[t]))
+			return -side(s, t);
+		int turn = orientation(left[t], right[t], right[s]);		// consecutive lines leaving the same point
+		return turn != 0 ? turn : Integer.compare(s, t);
+	}
+
+	/**
+	 * Finds if line s, which starts after line t, is above it.
+	 */
+	private int side(int t, int s) {
+		int turn = orientation(left[t], right[t], left[s]);
+		if(turn == 0)
+			turn = orientation(left[t], right[t], right[s]);
+		return turn != 0 ? turn : Integer.compare(s, t);
+	}
+
+	private boolean consecutive(int s, int t) {
+		int gap = Math.abs(s - t);
+		return gap == 1 || gap == n - 1;
+	}
+
+	private boolean intersect(int s, int t) {
+		if(consecutive(s, t))
+			return false;
+		return Geometry.segmentsIntersect(xs[left[s]], ys[left[s]], xs[right[s]], ys[right[s]],
+			xs[left[t]], ys[left[t]], xs[right[t]], ys[right[t]]);
+	}
+
+	private int orientation(int a, int b, int c) {
+		return Geometry.orientation(xs[a], ys[a], xs[b], ys[b], xs[c], ys[c]);
+	}
+
+	private boolean before(int a, int b) {
+		return xs[a] < xs[b] || (xs[a] == xs[b] && ys[a] < ys[b]);
+	}
+
+	private static long pack(int s, int t) {
+		return ((long)Math.min(s, t) << 32) | Math.max(s, t);
+	}
+
+}
@@ -0,0 +1,80 @@
+package polygon;
+
+/**
+ * The tour hashes of the last few candidates of an improvement loop, which the loop may not go back to.
+ * The hashes are kept in arrival order in a ring buffer and also in a hash set, so both remembering a candidate and
+ * asking about a neighbour take constant time, and a cycle of any length up to the tenure is never walked twice.
+ *
+ * @author Felipe Valverde
+ * @author Murilo Rosa
+ */
+class TabuList {
+
+	static final int DEFAULT_TENURE = 64;
+
+	private final long[] ring;
+	private final LongHashSet set;
+	private int next;
+	private int size;
+
+	/**
+	 * Default constructor for the class TabuList, remembering DEFAULT_TENURE candidates.
+	 */
+	public TabuList(){
+		this(DEFAULT_TENURE);
+	}
+
+	/**
+	 * Constructor for the class TabuList.
+	 * @param tenure The number of candidates remembered.
+	 */
+	public TabuList(int tenure){
+		ring = new long[Math.max(1, tenure)];
+		set = new LongHashSet(ring.length);
+		next = 0;
+		size = 0;
+	}
+
+	/**
+	 * Remembers a tour hash, forgetting the oldest one if the list is full.
+	 * @param hash The tour hash of the candidate reached.
+	 * @return false if the hash was already remembered.
+	 */
+	public boolean add(long hash){
+		if(!set.add(hash))
+			return false;
+		if(size == ring.length)
+			set.remove(ring[next]);
+		else
+			size++;
+		ring[next] = hash;
+		next = (next + 1) % ring.length;
+		return true;
+	}
+
+	/**
+	 * Checks if a tour hash is remembered.
+	 * @param hash The tour hash.
+	 * @return true if the tour is tabu.
+	 */
+	public boolean contains(long hash){
+		return set.contains(hash);
+	}
+
+	/**
+	 * Getter for the number of candidates remembered.
+	 * @return the number of candidates.
+	 */
+	public int size(){
+		return size;
+	}
+
+	/**
+	 * Getter for the number of candidates the list can remember.
+	 * @return the tenure.
+	 */
+	public int getTenure(){
+		return ring.length;
+	}
+
+}
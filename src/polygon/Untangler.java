@@ -0,0 +1,147 @@
+package polygon;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Removes the intersections of a candidate with 2-opt moves: whenever two lines ab and cd cross, the stretch of the path
+ * from b to c is reversed, which replaces them by ac and bd and shortens the polygon.
+ * The path is kept in a BlockTour, so each reversal costs O(sqrt(n)), and the lines are kept in a SegmentGrid that is
+ * updated after every move, so only the lines that changed are searched for new crossings.
+ * A run cut short by its time budget is taken up again by the next run, from the lines it had still to look at.
+ *
+ * @author Felipe Valverde
+ * @author Murilo Rosa
+ */
+class Untangler {
+
+	private final Candidate candidate;
+	private final BlockTour tour;
+	private final SegmentGrid grid;
+	private final IntList pending = new IntList(), hits = new IntList(), scratch = new IntList();
+	private final boolean[] queued;
+	private long budget;
+	private boolean timedOut;
+	private int moves;
+
+	/**
+	 * Default constructor for the class Untangler.
+	 * @param candidate The candidate to be untangled, which is not changed.
+	 */
+	public Untangler(Candidate candidate){
+		this.candidate = candidate;
+		this.tour = new BlockTour(candidate.tour);
+		this.grid = SegmentGrid.of(candidate);
+		this.queued = new boolean[tour.size()];
+		this.budget = Long.MAX_VALUE;
+		this.moves = 0;
+	}
+
+	/**
+	 * Setter for the wall-clock budget of every run.
+	 * @param budget The time, in milliseconds, after which a run stops.
+	 */
+	public void setBudget(long budget){
+		this.budget = budget;
+	}
+
+	/**
+	 * Getter for the number of moves made.
+	 * @return how many reversals were made so far.
+	 */
+	public int getMoves(){
+		return moves;
+	}
+
+	/**
+	 * Checks if the last run was stopped by its budget, in which case the next run goes on from where it stopped.
+	 * @return true if the last run ran out of time.
+	 */
+	public boolean isTimedOut(){
+		return timedOut;
+	}
+
+	/**
+	 * Reverses stretches of the path until no lines cross, the limit of moves is reached or the budget runs out.
+	 * @param maxMoves The limit of moves.
+	 * @return a child of the candidate with the untangled path.
+	 */
+	public Candidate run(int maxMoves){
+		int n = tour.size();
+		long deadline = budget == Long.MAX_VALUE ? Long.MAX_VALUE : System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(budget);
+		if(!timedOut)
+			for(int i = n - 1; i >= 0; i--)
+				if(!queued[i]) {
+					pending.add(i);
+					queued[i] = true;
+				}
+		timedOut = false;
+
+		for(int polls = 1; pending.size() > 0 && moves < maxMoves; polls++) {
+			if((polls & 255) == 0 && System.nanoTime() > deadline) {
+				timedOut = true;
+				break;
+			}
+			int s = pending.get(pending.size() - 1);
+			pending.truncate(pending.size() - 1);
+			queued[s] = false;
+
+			int a = grid.getA(s), b = grid.getB(s);
+			grid.query(a, b, hits, scratch);
+			if(tour.next(a) != b) {
+				int swap = a; a = b; b = swap;
+			}
+			int t = -1, c = -1, d = -1;
+			for(int h = 0; h < hits.size() && t == -1; h++) {
+				c = grid.getA(hits.get(h));
+				d = grid.getB(hits.get(h));
+				if(tour.next(c) != d) {
+					int swap = c; c = d; d = swap;
+				}
+				if(shortens(a, b, c, d))
+					t = hits.get(h);
+			}
+			if(t == -1)
+				continue;
+
+			int pb = tour.position(b), pc = tour.position(c);
+			if(pb <= pc)
+				tour.reverse(pb, pc);
+			else
+				tour.reverse(tour.position(d), tour.position(a));
+			grid.add(s, a, c);
+			grid.add(t, b, d);
+			moves++;
+			Stats.count(Stats.Counter.MOVES_ACCEPTED);
+
+			if(!queued[t]) {
+				pending.add(t);
+				queued[t] = true;
+			}
+			pending.add(s);
+			queued[s] = true;
+		}
+
+		return new Candidate(candidate, tour.toArray());
+	}
+
+	/**
+	 * Checks if replacing the lines ab and cd by ac and bd makes the polygon shorter.
+	 * Proper crossings always do, but lines that only overlap along the same direction may not,
+	 * and those are left alone so that the moves cannot go around in circles.
+	 * @return true if the move strictly shortens the polygon.
+	 */
+	private boolean shortens(int a, int b, int c, int d){
+		double before = length(a, b) + length(c, d);
+		return length(a, c) + length(b, d) < before * (1 - 1e-12);
+	}
+
+	/**
+	 * Finds the euclidian distance between two points.
+	 */
+	private double length(int a, int b){
+		double dx = (double)candidate.points.xs[a] - candidate.points.xs[b];
+		double dy = (double)candidate.points.ys[a] - candidate.points.ys[b];
+		return Math.sqrt(dx * dx + dy * dy);
+	}
+
+}